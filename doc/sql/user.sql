@@ -14,8 +14,8 @@ DROP TABLE IF EXISTS `user_info`;
 CREATE TABLE `user_info` (
     `id` bigint(20) unsigned NOT NULL AUTO_INCREMENT COMMENT '用户ID',
     `username` varchar(50) NOT NULL COMMENT '用户名/手机号',
-    `password` varchar(100) NOT NULL COMMENT '密码(加密)',
-    `salt` varchar(8) NOT NULL COMMENT '加密盐值',
+    `password` varchar(100) NOT NULL COMMENT '密码哈希($算法$参数$盐值$哈希)',
+    `salt` varchar(8) NOT NULL DEFAULT '' COMMENT '加密盐值(仅旧版SHA-256密码使用)',
     `nickname` varchar(50) DEFAULT NULL COMMENT '昵称',
     `avatar` varchar(255) DEFAULT NULL COMMENT '头像URL',
     `gender` tinyint(3) unsigned DEFAULT NULL COMMENT '性别:0-未知 1-男 2-女',
@@ -32,6 +32,7 @@ CREATE TABLE `user_info` (
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_username` (`username`),
     UNIQUE KEY `uk_phone` (`phone`),
+    KEY `idx_email` (`email`),
     KEY `idx_status` (`status`),
     KEY `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='用户基础信息表';
@@ -85,6 +85,42 @@ public class CacheConsts {
     public static final String IMG_VERIFY_CODE_CACHE_KEY =
         REDIS_CACHE_PREFIX + "imgVerifyCodeCache::";
 
+    /**
+     * Token 黑名单 KEY 前缀
+     */
+    public static final String TOKEN_BLACKLIST_PREFIX = "blacklist:";
+
+    /**
+     * Token 黑名单变更通知主题，消息内容为被拉黑的 token
+     */
+    public static final String TOKEN_BLACKLIST_TOPIC = "topic:token:blacklist";
+
+    /**
+     * 用户服务登录凭据本地缓存失效通知主题，消息内容为 "id:用户ID" 或 "identifier:小写登录标识"
+     */
+    public static final String USER_CREDENTIAL_EVICT_TOPIC = "topic:user:credential:evict";
+
+    /**
+     * 网关响应缓存失效通知主题，消息内容为用户ID，"*" 表示清空全部。
+     * 发布方先按 {@link #RESPONSE_CACHE_INDEX_PREFIX} 索引删除该用户的Redis缓存条目，订阅方只清除本地缓存
+     */
+    public static final String RESPONSE_CACHE_INVALIDATE_TOPIC = "topic:response:cache:invalidate";
+
+    /**
+     * 网关响应缓存的用户索引 KEY 前缀，后接用户ID，值为该用户Redis缓存条目键的集合
+     */
+    public static final String RESPONSE_CACHE_INDEX_PREFIX = "resp:cache:index:";
+
+    /**
+     * 网关封禁IP/网段 KEY 前缀，值为封禁到期时间戳
+     */
+    public static final String SECURITY_BAN_PREFIX = "security:ban:";
+
+    /**
+     * 网关封禁变更通知主题，消息内容为 "BAN|目标|到期时间戳" 或 "UNBAN|目标"
+     */
+    public static final String SECURITY_BAN_TOPIC = "topic:security:ban";
+
     /**
      * 用户信息缓存
      */
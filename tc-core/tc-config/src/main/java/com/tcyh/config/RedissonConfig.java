@@ -3,6 +3,7 @@ package com.tcyh.config;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
 import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -61,4 +62,13 @@ public class RedissonConfig {
         log.info("Redisson配置完成: host={}, port={}, database={}", redisHost, redisPort, redisDatabase);
         return Redisson.create(config);
     }
+
+    /**
+     * Redisson响应式客户端，与同步客户端共享连接池，供WebFlux/网关等响应式链路使用
+     */
+    @Bean
+    @ConditionalOnMissingBean(RedissonReactiveClient.class)
+    public RedissonReactiveClient redissonReactiveClient(RedissonClient redissonClient) {
+        return redissonClient.reactive();
+    }
 }
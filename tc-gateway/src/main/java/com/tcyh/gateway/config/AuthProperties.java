@@ -0,0 +1,28 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * 网关认证配置属性
+ *
+ * @param publicPaths 不需要认证的路径，支持 {@link org.springframework.web.util.pattern.PathPattern} 语法
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.auth")
+public record AuthProperties(@DefaultValue({
+        "/api/auth/login",
+        "/api/auth/register",
+        "/api/public/**",
+        "/swagger-ui/**",
+        "/v3/api-docs/**",
+        "/swagger-resources/**",
+        "/webjars/**",
+        "/actuator/**",
+        "/favicon.ico"
+}) List<String> publicPaths) {
+
+}
@@ -0,0 +1,37 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 自动封禁配置属性
+ *
+ * @param enabled         是否根据认证失败率自动封禁
+ * @param window          失败计数的滑动窗口长度
+ * @param slots           滑动窗口的槽数量
+ * @param ipThreshold     单个IP在窗口内的认证失败次数阈值
+ * @param subnetThreshold 单个 /24 网段在窗口内的认证失败次数阈值
+ * @param banDuration     首次封禁时长，再次触发时翻倍
+ * @param maxBanDuration  封禁时长上限，同时是累计触发次数的记忆时长
+ * @param maxTracked      本地跟踪的IP与网段计数器的最大数量
+ * @param syncInterval    从Redis全量同步封禁列表的间隔，用于补偿丢失的通知
+ * @param allowList       永不自动封禁的IP
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.auto-ban")
+public record AutoBanProperties(@DefaultValue("true") Boolean enabled,
+                                @DefaultValue("1m") Duration window,
+                                @DefaultValue("6") Integer slots,
+                                @DefaultValue("30") Integer ipThreshold,
+                                @DefaultValue("200") Integer subnetThreshold,
+                                @DefaultValue("15m") Duration banDuration,
+                                @DefaultValue("24h") Duration maxBanDuration,
+                                @DefaultValue("100000") Long maxTracked,
+                                @DefaultValue("1m") Duration syncInterval,
+                                @DefaultValue({"127.0.0.1", "0:0:0:0:0:0:0:1"}) List<String> allowList) {
+
+}
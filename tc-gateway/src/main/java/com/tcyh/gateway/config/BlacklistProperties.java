@@ -0,0 +1,22 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Token黑名单本地布隆过滤器配置属性
+ *
+ * @param expectedInsertions 预计黑名单条数
+ * @param fpp                期望误判率，误判时回源Redis确认
+ * @param rebuildInterval    从Redis全量重建布隆过滤器的间隔，用于清理过期条目并补偿丢失的通知
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.blacklist")
+public record BlacklistProperties(@DefaultValue("1000000") Long expectedInsertions,
+                                  @DefaultValue("0.001") Double fpp,
+                                  @DefaultValue("5m") Duration rebuildInterval) {
+
+}
@@ -0,0 +1,19 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * 客户端IP解析配置属性
+ *
+ * @param trustedProxies 网关前的可信代理（负载均衡、Nginx等）的IP或CIDR，
+ *                       只有经这些代理转发时才读取 X-Forwarded-For/X-Real-IP，为空时只用连接对端地址
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.client-ip")
+public record ClientIpProperties(@DefaultValue List<String> trustedProxies) {
+
+}
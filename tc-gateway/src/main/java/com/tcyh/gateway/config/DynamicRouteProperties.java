@@ -0,0 +1,29 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 动态路由配置属性
+ *
+ * @param dataId   Nacos中路由与公开路径配置的 dataId，内容为JSON
+ * @param group    Nacos配置分组
+ * @param timeout  启动时读取Nacos配置的超时时间
+ * @param fallback 本地路由，Nacos中没有路由配置或读取失败时使用
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.routes")
+public record DynamicRouteProperties(@DefaultValue("tc-gateway-routes.json") String dataId,
+                                     @DefaultValue("DEFAULT_GROUP") String group,
+                                     @DefaultValue("3s") Duration timeout,
+                                     List<RouteDefinition> fallback) {
+
+    public DynamicRouteProperties {
+        fallback = fallback != null ? List.copyOf(fallback) : List.of();
+    }
+}
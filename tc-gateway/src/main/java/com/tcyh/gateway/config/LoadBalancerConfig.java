@@ -0,0 +1,17 @@
+package com.tcyh.gateway.config;
+
+import com.tcyh.gateway.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 网关负载均衡配置，所有 lb:// 路由默认使用峰值EWMA负载均衡
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+}
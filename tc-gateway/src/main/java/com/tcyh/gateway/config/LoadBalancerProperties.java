@@ -0,0 +1,28 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 网关负载均衡配置属性
+ *
+ * @param decayTime          峰值EWMA延迟的衰减时间常数
+ * @param consecutiveErrors  连续失败多少次后摘除实例
+ * @param baseEjectionTime   首次摘除时长，之后每次连续摘除按倍数递增
+ * @param maxEjectionTime    最长摘除时长
+ * @param maxEjectionPercent 最多同时摘除的实例比例（%），避免全部摘除
+ * @param idleTimeout        实例统计闲置多久后清理，实例下线后其统计不再常驻内存
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.load-balancer")
+public record LoadBalancerProperties(@DefaultValue("10s") Duration decayTime,
+                                     @DefaultValue("5") Integer consecutiveErrors,
+                                     @DefaultValue("30s") Duration baseEjectionTime,
+                                     @DefaultValue("5m") Duration maxEjectionTime,
+                                     @DefaultValue("50") Integer maxEjectionPercent,
+                                     @DefaultValue("10m") Duration idleTimeout) {
+
+}
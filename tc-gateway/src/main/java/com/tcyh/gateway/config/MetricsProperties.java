@@ -0,0 +1,37 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关请求指标配置属性
+ *
+ * @param slo                  请求耗时直方图的SLO桶边界
+ * @param slowThreshold        默认慢请求阈值
+ * @param routeSlowThresholds  按路由ID覆盖的慢请求阈值
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.metrics")
+public record MetricsProperties(@DefaultValue({"50ms", "100ms", "250ms", "500ms", "1s", "2s", "5s"}) List<Duration> slo,
+                                @DefaultValue("5s") Duration slowThreshold,
+                                Map<String, Duration> routeSlowThresholds) {
+
+    public MetricsProperties {
+        routeSlowThresholds = routeSlowThresholds != null ? Map.copyOf(routeSlowThresholds) : Map.of();
+    }
+
+    /**
+     * 获取路由的慢请求阈值
+     *
+     * @param routeId 路由ID
+     * @return 慢请求阈值
+     */
+    public Duration slowThresholdFor(String routeId) {
+        return routeSlowThresholds.getOrDefault(routeId, slowThreshold);
+    }
+}
@@ -0,0 +1,20 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * 监控接口访问配置属性
+ *
+ * @param adminUsers     允许访问监控接口的用户名，为空时除匿名路径外全部拒绝
+ * @param anonymousPaths 无需登录的监控路径，如供探活使用的健康检查
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.monitor")
+public record MonitorProperties(@DefaultValue List<String> adminUsers,
+                                @DefaultValue("/api/monitor/health") List<String> anonymousPaths) {
+
+}
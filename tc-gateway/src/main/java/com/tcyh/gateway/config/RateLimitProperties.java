@@ -0,0 +1,22 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 网关限流配置属性，各路由的限流规则在路由的 RateLimit 过滤器参数中配置
+ *
+ * @param syncInterval 本地令牌桶与Redis全局配额对账的间隔
+ * @param maxBuckets   本地令牌桶的最大数量
+ * @param idleTimeout  令牌桶闲置多久后淘汰
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.rate-limit")
+public record RateLimitProperties(@DefaultValue("100ms") Duration syncInterval,
+                                  @DefaultValue("100000") Long maxBuckets,
+                                  @DefaultValue("10m") Duration idleTimeout) {
+
+}
@@ -0,0 +1,19 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 网关响应缓存配置属性，各路由的缓存时间在路由的 ResponseCache 过滤器参数中配置
+ *
+ * @param maxSize     本地缓存最大条目数
+ * @param maxBodySize 可缓存的最大响应体
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.response-cache")
+public record ResponseCacheProperties(@DefaultValue("10000") Long maxSize,
+                                      @DefaultValue("256KB") DataSize maxBodySize) {
+
+}
@@ -0,0 +1,34 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 安全统计配置属性
+ *
+ * @param flushInterval       本地计数刷入Redis的间隔
+ * @param minuteTtl           按分钟统计键的过期时间
+ * @param hourTtl             按小时统计键的过期时间
+ * @param dateTtl             按日统计键的过期时间
+ * @param dimensionTtl        按IP/用户维度的摘要键（Count-Min、HyperLogLog）的过期时间
+ * @param sketchDepth         Count-Min 行数
+ * @param sketchWidth         Count-Min 列数
+ * @param maxDistinctPerFlush 每个刷入周期内记录到 HyperLogLog 的最大不同值数量
+ * @param compactOnStartup    启动时是否清理旧版按实体计数键、补齐缺失的过期时间
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.stats")
+public record StatsProperties(@DefaultValue("1s") Duration flushInterval,
+                              @DefaultValue("2h") Duration minuteTtl,
+                              @DefaultValue("2d") Duration hourTtl,
+                              @DefaultValue("7d") Duration dateTtl,
+                              @DefaultValue("7d") Duration dimensionTtl,
+                              @DefaultValue("4") Integer sketchDepth,
+                              @DefaultValue("2048") Integer sketchWidth,
+                              @DefaultValue("50000") Integer maxDistinctPerFlush,
+                              @DefaultValue("true") Boolean compactOnStartup) {
+
+}
@@ -0,0 +1,22 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 已验签Token缓存配置属性
+ *
+ * @param enabled 是否开启缓存
+ * @param maxSize 最大缓存条数
+ * @param ttl     缓存最长存活时间，实际过期时间取 min(token过期时间, ttl)
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.token-cache")
+public record TokenCacheProperties(@DefaultValue("true") Boolean enabled,
+                                   @DefaultValue("100000") Long maxSize,
+                                   @DefaultValue("5m") Duration ttl) {
+
+}
@@ -0,0 +1,35 @@
+package com.tcyh.gateway.config;
+
+import com.tcyh.gateway.filter.PooledNettyRoutingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+
+/**
+ * 上游连接配置，网关默认的 NettyRoutingFilter 需通过
+ * spring.cloud.gateway.global-filter.netty-routing.enabled=false 关闭
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamHttpClientConfig {
+
+    @Bean
+    public PooledNettyRoutingFilter pooledNettyRoutingFilter(HttpClient httpClient,
+                                                             ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                             HttpClientProperties httpClientProperties,
+                                                             ObjectProvider<HttpClientCustomizer> customizers,
+                                                             UpstreamProperties upstreamProperties) {
+        return new PooledNettyRoutingFilter(httpClient, headersFilters, httpClientProperties,
+                customizers.orderedStream().toList(), upstreamProperties);
+    }
+}
@@ -0,0 +1,66 @@
+package com.tcyh.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 上游连接池配置属性
+ * <p>
+ * 路由通过元数据 {@code upstream-pool} 指定使用的连接池，未指定的路由使用
+ * spring.cloud.gateway.httpclient 配置的默认连接池。
+ *
+ * @param pools 按名称配置的连接池
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.gateway.upstream")
+public record UpstreamProperties(Map<String, Pool> pools) {
+
+    public UpstreamProperties {
+        pools = pools != null ? Map.copyOf(pools) : Map.of();
+    }
+
+    /**
+     * 上游协议
+     */
+    public enum Protocol {
+        /**
+         * HTTP/1.1，每个连接同时只承载一个请求
+         */
+        HTTP11,
+        /**
+         * 明文HTTP/2（prior knowledge），单连接多路复用，上游需开启h2c
+         */
+        H2C,
+        /**
+         * TLS上的HTTP/2，通过ALPN协商，协商失败时回退HTTP/1.1
+         */
+        H2
+    }
+
+    /**
+     * 连接池配置
+     *
+     * @param maxConnections         最大连接数
+     * @param maxConcurrentStreams   HTTP/2下每个连接的最大并发流数
+     * @param pendingAcquireMaxCount 等待获取连接的最大请求数，超过时立即失败
+     * @param pendingAcquireTimeout  等待获取连接的超时时间
+     * @param maxIdleTime            连接最大空闲时间，应小于上游的keep-alive超时
+     * @param maxLifeTime            连接最大存活时间，到期后关闭以便重新均衡到新实例
+     * @param evictionInterval       后台清理空闲与过期连接的间隔
+     * @param protocol               上游协议
+     */
+    public record Pool(@DefaultValue("200") Integer maxConnections,
+                       @DefaultValue("100") Integer maxConcurrentStreams,
+                       @DefaultValue("1000") Integer pendingAcquireMaxCount,
+                       @DefaultValue("2s") Duration pendingAcquireTimeout,
+                       @DefaultValue("30s") Duration maxIdleTime,
+                       @DefaultValue("10m") Duration maxLifeTime,
+                       @DefaultValue("30s") Duration evictionInterval,
+                       @DefaultValue("HTTP11") Protocol protocol) {
+
+    }
+}
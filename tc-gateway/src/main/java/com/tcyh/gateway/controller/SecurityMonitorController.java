@@ -1,17 +1,32 @@
 package com.tcyh.gateway.controller;
 
+import com.tcyh.common.constant.ErrorCodeEnum;
 import com.tcyh.common.resp.RestResp;
+import com.tcyh.gateway.service.AutoBanService;
+import com.tcyh.gateway.service.SecurityMetricsStream;
 import com.tcyh.gateway.service.SecurityStatsService;
+import com.tcyh.gateway.util.PublicPathMatcher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,6 +43,10 @@ import java.util.Map;
 public class SecurityMonitorController {
 
     private final SecurityStatsService securityStatsService;
+    private final SecurityMetricsStream securityMetricsStream;
+    private final AutoBanService autoBanService;
+    private final RouteLocator routeLocator;
+    private final PublicPathMatcher publicPathMatcher;
 
     @GetMapping("/stats")
     @Operation(summary = "获取安全统计信息", description = "获取今日认证相关的统计数据")
@@ -59,6 +78,47 @@ public class SecurityMonitorController {
         });
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "实时安全指标流", description = "以SSE推送每秒聚合的认证指标，连接时先回放最近的历史数据")
+    public Flux<ServerSentEvent<SecurityMetricsStream.Snapshot>> streamSecurityMetrics(
+            @RequestParam(defaultValue = "60") int history) {
+        return securityMetricsStream.stream(history)
+                .map(snapshot -> ServerSentEvent.<SecurityMetricsStream.Snapshot>builder()
+                        .id(String.valueOf(snapshot.timestamp()))
+                        .event("security-metrics")
+                        .data(snapshot)
+                        .build());
+    }
+
+    @GetMapping("/bans")
+    @Operation(summary = "获取封禁列表", description = "获取当前生效的IP与网段封禁")
+    public RestResp<List<AutoBanService.Ban>> listBans() {
+        return RestResp.ok(autoBanService.listBans());
+    }
+
+    @PostMapping("/bans")
+    @Operation(summary = "封禁IP或网段", description = "target 为IP或 a.b.c.0/24 网段，封禁同步到所有网关实例")
+    public RestResp<Void> ban(@RequestParam String target,
+                              @RequestParam(defaultValue = "60") long minutes) {
+        String normalized = AutoBanService.normalizeTarget(target);
+        if (normalized == null || minutes <= 0) {
+            return RestResp.fail(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        autoBanService.ban(normalized, Duration.ofMinutes(minutes), "手动封禁");
+        return RestResp.ok();
+    }
+
+    @DeleteMapping("/bans")
+    @Operation(summary = "解除封禁", description = "解除IP或网段的封禁并清除累计触发次数")
+    public RestResp<Void> unban(@RequestParam String target) {
+        String normalized = AutoBanService.normalizeTarget(target);
+        if (normalized == null) {
+            return RestResp.fail(ErrorCodeEnum.USER_REQUEST_PARAM_ERROR);
+        }
+        autoBanService.unban(normalized);
+        return RestResp.ok();
+    }
+
     @GetMapping("/health")
     @Operation(summary = "健康检查", description = "检查网关服务健康状态")
     public RestResp<Map<String, Object>> health() {
@@ -72,22 +132,17 @@ public class SecurityMonitorController {
     }
 
     @GetMapping("/routes")
-    @Operation(summary = "获取路由信息", description = "获取网关配置的路由信息")
-    public RestResp<Map<String, Object>> getRoutes() {
-        Map<String, Object> routes = new HashMap<>();
-        
-        Map<String, Object> routeConfig = new HashMap<>();
-        routeConfig.put("/api/auth/**", "认证服务路由");
-        routeConfig.put("/api/user/**", "用户服务路由");
-        routeConfig.put("/api/public/**", "公开接口路由");
-        routeConfig.put("/api/test/**", "测试接口路由");
-        routeConfig.put("/swagger-ui/**", "API文档路由");
-        routeConfig.put("/actuator/**", "健康检查路由");
-        
-        routes.put("routes", routeConfig);
-        routes.put("totalRoutes", routeConfig.size());
-        routes.put("timestamp", System.currentTimeMillis());
-        
-        return RestResp.ok(routes);
+    @Operation(summary = "获取路由信息", description = "获取网关当前生效的路由与公开路径")
+    public Mono<RestResp<Map<String, Object>>> getRoutes() {
+        return routeLocator.getRoutes()
+                .collectMap(Route::getId, route -> route.getUri().toString(), LinkedHashMap::new)
+                .map(routeConfig -> {
+                    Map<String, Object> routes = new HashMap<>();
+                    routes.put("routes", routeConfig);
+                    routes.put("totalRoutes", routeConfig.size());
+                    routes.put("publicPaths", publicPathMatcher.getPublicPaths());
+                    routes.put("timestamp", System.currentTimeMillis());
+                    return RestResp.ok(routes);
+                });
     }
 }
@@ -0,0 +1,316 @@
+package com.tcyh.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 请求合并过滤器工厂 - 相同GET请求的单飞（single-flight）
+ * <p>
+ * 在路由的 filters 中配置：
+ * <pre>
+ * - name: Coalesce
+ *   args:
+ *     key-headers: Accept,Accept-Language
+ *     max-body-bytes: 262144
+ * </pre>
+ * 合并键为路由ID、路径、查询串（可关闭）、配置的请求头与认证用户ID。
+ * 带 Cookie 或未经认证过滤器解析出用户的 Authorization 的请求不合并，响应可能取决于合并键之外的凭据。
+ * 同一键上第一个请求（leader）转发到上游，其余同时到达的请求（follower）等待leader的响应，
+ * 由leader在上游响应体接收完毕时把状态码、响应头与响应体一次性分发给所有follower（不等待写给客户端的过程），
+ * 热点资源的并发请求只访问上游一次。
+ * leader的响应体边转发边复制，超过 max-body-bytes、带 Set-Cookie、Cache-Control 为 private
+ * 或为流式响应时不共享（共享进行中的响应不属于存储，no-store/no-cache 的响应照常共享）；
+ * 不共享、leader被取消或等待超过 max-wait-millis 时，follower各自转发到上游。
+ * 只合并进行中的请求，leader完成后不保留响应，需要缓存时使用 ResponseCache 过滤器。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Component
+public class CoalesceGatewayFilterFactory extends AbstractGatewayFilterFactory<CoalesceGatewayFilterFactory.Config> {
+
+    private static final String METRIC_NAME = "tc.gateway.coalesce";
+    private static final String ANONYMOUS = "anonymous";
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaderCounter;
+    private final Counter sharedCounter;
+    private final Counter fallbackCounter;
+
+    public CoalesceGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.leaderCounter = counter(meterRegistry, "leader");
+        this.sharedCounter = counter(meterRegistry, "shared");
+        this.fallbackCounter = counter(meterRegistry, "fallback");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET || hasUnkeyedCredentials(exchange)) {
+                return chain.filter(exchange);
+            }
+            String key = key(exchange, config);
+            Flight flight = new Flight();
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                leaderCounter.increment();
+                return lead(exchange, chain, config, key, flight);
+            }
+            return existing.sink.asMono()
+                    .timeout(Duration.ofMillis(config.getMaxWaitMillis()), Mono.empty())
+                    .flatMap(shared -> {
+                        sharedCounter.increment();
+                        return writeShared(exchange, shared);
+                    })
+                    .switchIfEmpty(Mono.defer(() -> {
+                        fallbackCounter.increment();
+                        return chain.filter(exchange);
+                    }));
+        };
+    }
+
+    /**
+     * leader转发到上游，结束时无论是否共享都撤下本次合并，避免follower一直等待
+     */
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                            String key, Flight flight) {
+        SharingResponse response = new SharingResponse(exchange.getResponse(), config.getMaxBodyBytes(),
+                shared -> flight.complete(() -> inFlight.remove(key, flight), shared));
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signalType -> flight.complete(() -> inFlight.remove(key, flight), null));
+    }
+
+    private static Mono<Void> writeShared(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(shared.status()));
+        response.getHeaders().putAll(shared.headers());
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().setContentLength(shared.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    /**
+     * 请求是否带有未体现在合并键中的凭据：任意 Cookie，或公开路径上未解析为用户ID的 Authorization
+     */
+    private static boolean hasUnkeyedCredentials(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (headers.containsKey(HttpHeaders.COOKIE)) {
+            return true;
+        }
+        return headers.containsKey(HttpHeaders.AUTHORIZATION)
+                && exchange.getAttribute(ObservabilityFilter.USER_ID_ATTR) == null;
+    }
+
+    private static String key(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        Object userId = exchange.getAttribute(ObservabilityFilter.USER_ID_ATTR);
+
+        StringBuilder key = new StringBuilder(128)
+                .append(route != null ? route.getId() : "unknown").append('|')
+                .append(userId != null ? userId : ANONYMOUS).append('|')
+                .append(request.getPath().value());
+        String query = request.getURI().getRawQuery();
+        if (config.isIncludeQuery() && query != null) {
+            key.append('?').append(query);
+        }
+        for (String header : config.getKeyHeaders()) {
+            key.append('|').append(request.getHeaders().getOrEmpty(header));
+        }
+        return key.toString();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_NAME)
+                .description("请求合并结果：leader转发上游，shared复用leader响应，fallback未能复用而自行转发")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 进行中的一次上游请求，结果只发布一次
+     */
+    private static final class Flight {
+
+        private final Sinks.One<SharedResponse> sink = Sinks.one();
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        /**
+         * 先撤下合并再发布结果，发布后到达的请求会发起新的一次合并
+         *
+         * @param retire 从进行中的合并里移除自身
+         * @param shared 共享的响应，为 null 时通知follower自行转发
+         */
+        void complete(Runnable retire, SharedResponse shared) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+            retire.run();
+            if (shared != null) {
+                sink.tryEmitValue(shared);
+            } else {
+                sink.tryEmitEmpty();
+            }
+        }
+    }
+
+    /**
+     * 转发leader响应的同时复制响应体，上游响应体结束时交给follower
+     */
+    private static final class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final long maxBodyBytes;
+        private final Consumer<SharedResponse> publisher;
+
+        SharingResponse(ServerHttpResponse delegate, long maxBodyBytes,
+                        Consumer<SharedResponse> publisher) {
+            super(delegate);
+            this.maxBodyBytes = maxBodyBytes;
+            this.publisher = publisher;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            if (!isShareable(headers)) {
+                return super.writeWith(body);
+            }
+            List<byte[]> chunks = new ArrayList<>();
+            long[] size = new long[1];
+            boolean[] sharing = {true};
+            Flux<DataBuffer> teed = Flux.from(body).map(buffer -> {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                if (sharing[0]) {
+                    size[0] += bytes.length;
+                    if (size[0] > maxBodyBytes) {
+                        sharing[0] = false;
+                        chunks.clear();
+                    } else {
+                        chunks.add(bytes);
+                    }
+                }
+                return bufferFactory().wrap(bytes);
+            }).doOnComplete(() -> {
+                // 上游响应体已完整，不必等leader的客户端写完
+                if (sharing[0]) {
+                    publisher.accept(new SharedResponse(status(), snapshot(headers),
+                            concat(chunks, (int) size[0])));
+                }
+            });
+            return super.writeWith(teed);
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            HttpHeaders headers = getHeaders();
+            if (isShareable(headers)) {
+                publisher.accept(new SharedResponse(status(), snapshot(headers), new byte[0]));
+            }
+            return super.setComplete();
+        }
+
+        private boolean isShareable(HttpHeaders headers) {
+            if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl != null && cacheControl.contains("private")) {
+                return false;
+            }
+            return headers.getContentLength() <= maxBodyBytes;
+        }
+
+        private int status() {
+            HttpStatusCode statusCode = getStatusCode();
+            return statusCode != null ? statusCode.value() : 200;
+        }
+
+        private static HttpHeaders snapshot(HttpHeaders headers) {
+            HttpHeaders copy = new HttpHeaders();
+            copy.putAll(headers);
+            return HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+
+        private static byte[] concat(List<byte[]> chunks, int size) {
+            if (chunks.size() == 1) {
+                return chunks.get(0);
+            }
+            byte[] body = new byte[size];
+            int offset = 0;
+            for (byte[] chunk : chunks) {
+                System.arraycopy(chunk, 0, body, offset, chunk.length);
+                offset += chunk.length;
+            }
+            return body;
+        }
+    }
+
+    /**
+     * leader的完整响应
+     *
+     * @param status  状态码
+     * @param headers 只读响应头
+     * @param body    响应体
+     */
+    private record SharedResponse(int status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * 请求合并配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 参与合并键的请求头，响应内容随这些头变化时需要配置
+         */
+        private List<String> keyHeaders = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+                HttpHeaders.ACCEPT_LANGUAGE);
+
+        /**
+         * 合并键是否包含查询串
+         */
+        private boolean includeQuery = true;
+
+        /**
+         * 可共享的最大响应体（字节）
+         */
+        private long maxBodyBytes = 256 * 1024;
+
+        /**
+         * follower等待leader响应的最长时间（毫秒），超时后自行转发
+         */
+        private long maxWaitMillis = 5000;
+    }
+}
@@ -0,0 +1,57 @@
+package com.tcyh.gateway.filter;
+
+import com.tcyh.gateway.loadbalancer.InstanceStatsRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 上游实例统计过滤器 - 在负载均衡选出实例之后执行，记录实例的在途请求数、延迟与失败，
+ * 供 {@link com.tcyh.gateway.loadbalancer.PeakEwmaLoadBalancer} 选择实例
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Component
+@RequiredArgsConstructor
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry registry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        long startTime = System.nanoTime();
+        registry.onStart(instance, startTime);
+        return chain.filter(exchange).doFinally(signalType -> {
+            long now = System.nanoTime();
+            // 客户端取消不代表实例故障
+            boolean failed = signalType == SignalType.ON_ERROR || isServerError(exchange);
+            registry.onComplete(instance, now - startTime, failed && signalType != SignalType.CANCEL, now);
+        });
+    }
+
+    private static boolean isServerError(ServerWebExchange exchange) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        return statusCode != null && statusCode.is5xxServerError();
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
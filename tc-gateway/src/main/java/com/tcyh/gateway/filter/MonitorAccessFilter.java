@@ -0,0 +1,101 @@
+package com.tcyh.gateway.filter;
+
+import com.tcyh.gateway.config.MonitorProperties;
+import com.tcyh.gateway.handler.ErrorResponseWriter;
+import com.tcyh.gateway.service.AutoBanService;
+import com.tcyh.gateway.service.TokenBlacklistService;
+import com.tcyh.gateway.service.TokenCacheService;
+import com.tcyh.gateway.util.ClientIpResolver;
+import com.tcyh.gateway.util.VerifiedToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * 监控接口访问控制 - 仅管理员可访问
+ * <p>
+ * 监控接口由网关自身的控制器处理，请求在路由匹配之前就被 {@code RequestMappingHandlerMapping} 接管，
+ * 不经过认证、封禁等 {@code GlobalFilter}，因此以 {@link WebFilter} 单独保护：
+ * 除匿名路径外，要求有效且未被拉黑的token，且用户名在 tc.gateway.monitor.admin-users 中。
+ * token无效时与认证过滤器一样计入自动封禁的失败次数。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MonitorProperties.class)
+public class MonitorAccessFilter implements WebFilter, Ordered {
+
+    private static final String MONITOR_PREFIX = "/api/monitor/";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenCacheService tokenCacheService;
+    private final TokenBlacklistService tokenBlacklistService;
+    private final AutoBanService autoBanService;
+    private final ClientIpResolver clientIpResolver;
+    private final Set<String> adminUsers;
+    private final Set<String> anonymousPaths;
+
+    public MonitorAccessFilter(TokenCacheService tokenCacheService, TokenBlacklistService tokenBlacklistService,
+                               AutoBanService autoBanService, ClientIpResolver clientIpResolver,
+                               MonitorProperties properties) {
+        this.tokenCacheService = tokenCacheService;
+        this.tokenBlacklistService = tokenBlacklistService;
+        this.autoBanService = autoBanService;
+        this.clientIpResolver = clientIpResolver;
+        this.adminUsers = Set.copyOf(properties.adminUsers());
+        this.anonymousPaths = Set.copyOf(properties.anonymousPaths());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!path.startsWith(MONITOR_PREFIX) || anonymousPaths.contains(path)) {
+            return chain.filter(exchange);
+        }
+
+        String clientIp = clientIpResolver.resolve(exchange.getRequest());
+        if (autoBanService.isBanned(clientIp)) {
+            return ErrorResponseWriter.write(exchange, HttpStatus.FORBIDDEN, ErrorResponseWriter.IP_BANNED);
+        }
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (!StringUtils.hasText(authHeader) || !authHeader.startsWith(BEARER_PREFIX)) {
+            return ErrorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, ErrorResponseWriter.MISSING_TOKEN);
+        }
+
+        String token = authHeader.substring(BEARER_PREFIX.length());
+        return tokenBlacklistService.isBlacklisted(token).flatMap(isBlacklisted -> {
+            if (Boolean.TRUE.equals(isBlacklisted)) {
+                autoBanService.recordFailure(clientIp);
+                return ErrorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, ErrorResponseWriter.TOKEN_REVOKED);
+            }
+            VerifiedToken verifiedToken = tokenCacheService.verify(token);
+            if (verifiedToken == null) {
+                autoBanService.recordFailure(clientIp);
+                return ErrorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, ErrorResponseWriter.TOKEN_INVALID);
+            }
+            if (!adminUsers.contains(verifiedToken.getUsername())) {
+                log.warn("非管理员访问监控接口: username={} path={} from {}",
+                        verifiedToken.getUsername(), path, clientIp);
+                return ErrorResponseWriter.write(exchange, HttpStatus.FORBIDDEN, ErrorResponseWriter.ADMIN_REQUIRED);
+            }
+            return chain.filter(exchange);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return -50; // 在安全过滤器链（-100）之后执行
+    }
+}
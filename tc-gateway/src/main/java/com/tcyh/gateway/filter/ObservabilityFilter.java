@@ -0,0 +1,168 @@
+package com.tcyh.gateway.filter;
+
+import com.tcyh.gateway.config.MetricsProperties;
+import com.tcyh.gateway.util.ClientIpResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求观测过滤器 - 合并原请求日志与性能监控过滤器
+ * <p>
+ * 每个请求只解析一次客户端IP、开始时间与路由，写入exchange属性供后续过滤器读取；
+ * 请求结束时按路由、方法、状态码与结果分类记录基于 nanoTime 的 Micrometer {@link Timer}
+ * （百分位直方图 + SLO桶，经 actuator 的 prometheus 端点导出，Timer按标签组合缓存复用），并只输出一行访问日志；
+ * 超过路由慢请求阈值的请求额外输出WARN日志。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(MetricsProperties.class)
+public class ObservabilityFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 客户端IP属性
+     */
+    public static final String CLIENT_IP_ATTR = ObservabilityFilter.class.getName() + ".clientIp";
+
+    /**
+     * 请求开始时间属性（System.nanoTime）
+     */
+    public static final String START_TIME_ATTR = ObservabilityFilter.class.getName() + ".startTime";
+
+    /**
+     * 认证通过后的用户ID属性，由认证过滤器写入
+     */
+    public static final String USER_ID_ATTR = ObservabilityFilter.class.getName() + ".userId";
+
+    private static final String METRIC_NAME = "tc.gateway.requests";
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final MetricsProperties properties;
+    private final ClientIpResolver clientIpResolver;
+    private final Duration[] slo;
+
+    /**
+     * 按 (路由, 方法, 状态码) 缓存的Timer，结果标签由状态码决定
+     */
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ObservabilityFilter(MeterRegistry meterRegistry, MetricsProperties properties,
+                               ClientIpResolver clientIpResolver) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.clientIpResolver = clientIpResolver;
+        this.slo = properties.slo().toArray(new Duration[0]);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startTime = System.nanoTime();
+        exchange.getAttributes().put(START_TIME_ATTR, startTime);
+        exchange.getAttributes().put(CLIENT_IP_ATTR, clientIpResolver.resolve(exchange.getRequest()));
+
+        return chain.filter(exchange)
+                .doFinally(signalType -> record(exchange, startTime, signalType));
+    }
+
+    /**
+     * 获取客户端IP，读取本过滤器按可信代理解析后写入的属性；
+     * 属性不存在时（未经过本过滤器）只使用连接对端地址，不信任转发头
+     */
+    public static String getClientIp(ServerWebExchange exchange) {
+        String clientIp = exchange.getAttribute(CLIENT_IP_ATTR);
+        return clientIp != null ? clientIp : ClientIpResolver.remoteAddress(exchange.getRequest());
+    }
+
+    private void record(ServerWebExchange exchange, long startTime, SignalType signalType) {
+        long duration = System.nanoTime() - startTime;
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : UNKNOWN;
+        String status = resolveStatus(exchange, signalType);
+        ServerHttpRequest request = exchange.getRequest();
+        String method = request.getMethod().name();
+
+        timers.computeIfAbsent(new TimerKey(routeId, method, status), this::newTimer)
+                .record(duration, TimeUnit.NANOSECONDS);
+
+        long costMillis = TimeUnit.NANOSECONDS.toMillis(duration);
+        log.info("access method={} path={} route={} status={} ip={} userId={} costMs={}",
+                method, request.getPath().value(), routeId, status,
+                exchange.getAttribute(CLIENT_IP_ATTR), exchange.getAttribute(USER_ID_ATTR), costMillis);
+
+        Duration slowThreshold = properties.slowThresholdFor(routeId);
+        if (duration > slowThreshold.toNanos()) {
+            log.warn("慢请求 method={} path={} route={} costMs={} thresholdMs={}",
+                    method, request.getPath().value(), routeId, costMillis, slowThreshold.toMillis());
+        }
+    }
+
+    private Timer newTimer(TimerKey key) {
+        return Timer.builder(METRIC_NAME)
+                .description("网关请求耗时")
+                .tag("route", key.route())
+                .tag("method", key.method())
+                .tag("status", key.status())
+                .tag("outcome", resolveOutcome(key.status()))
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slo)
+                .register(meterRegistry);
+    }
+
+    private static String resolveStatus(ServerWebExchange exchange, SignalType signalType) {
+        if (signalType == SignalType.CANCEL) {
+            return "CANCELLED";
+        }
+        if (signalType == SignalType.ON_ERROR) {
+            return "500";
+        }
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        return statusCode != null ? String.valueOf(statusCode.value()) : "200";
+    }
+
+    /**
+     * 按状态码分类请求结果，与 Spring Boot 的 outcome 标签取值一致
+     */
+    private static String resolveOutcome(String status) {
+        if (status.length() != 3 || !Character.isDigit(status.charAt(0))) {
+            return "UNKNOWN";
+        }
+        return switch (status.charAt(0)) {
+            case '1' -> "INFORMATIONAL";
+            case '2' -> "SUCCESS";
+            case '3' -> "REDIRECTION";
+            case '4' -> "CLIENT_ERROR";
+            case '5' -> "SERVER_ERROR";
+            default -> "UNKNOWN";
+        };
+    }
+
+    @Override
+    public int getOrder() {
+        return -300; // 最先执行，覆盖整个过滤器链的耗时
+    }
+
+    private record TimerKey(String route, String method, String status) {
+
+    }
+}
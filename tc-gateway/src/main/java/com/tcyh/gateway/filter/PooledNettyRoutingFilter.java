@@ -0,0 +1,193 @@
+package com.tcyh.gateway.filter;
+
+import com.tcyh.gateway.config.UpstreamProperties;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.SslProvider;
+
+import javax.net.ssl.KeyManagerFactory;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+/**
+ * 按连接池路由的Netty转发过滤器
+ * <p>
+ * 替换网关默认的 {@link NettyRoutingFilter}：路由元数据 {@code upstream-pool} 指定连接池名称时，
+ * 使用该连接池独立的 {@link HttpClient}，各上游服务的连接数、空闲/存活时间与协议互不影响；
+ * 未指定时沿用网关默认的 HttpClient。连接池启动时一次性创建，并开启 Reactor Netty 连接池指标
+ * （reactor.netty.connection.provider.*，含获取连接的等待时间），经 prometheus 端点导出。
+ * H2 连接池沿用 {@code spring.cloud.gateway.httpclient.ssl} 的信任证书、客户端密钥库、
+ * useInsecureTrustManager 与握手/close_notify 超时，与默认 HttpClient 的TLS行为一致。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+public class PooledNettyRoutingFilter extends NettyRoutingFilter implements DisposableBean {
+
+    /**
+     * 路由元数据中的连接池名称
+     */
+    public static final String UPSTREAM_POOL_ATTR = "upstream-pool";
+
+    private final Map<String, ConnectionProvider> providers = new HashMap<>();
+    private final Map<String, HttpClient> clients = new HashMap<>();
+
+    public PooledNettyRoutingFilter(HttpClient httpClient,
+                                    ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                    HttpClientProperties httpClientProperties,
+                                    List<HttpClientCustomizer> customizers,
+                                    UpstreamProperties upstreamProperties) {
+        super(httpClient, headersFiltersProvider, httpClientProperties);
+        upstreamProperties.pools().forEach((name, pool) -> {
+            ConnectionProvider provider = buildProvider(name, pool);
+            providers.put(name, provider);
+            clients.put(name, buildClient(provider, pool, httpClientProperties, customizers));
+            log.info("上游连接池创建完成: name={}, protocol={}, maxConnections={}, maxIdleTime={}, maxLifeTime={}",
+                    name, pool.protocol(), pool.maxConnections(), pool.maxIdleTime(), pool.maxLifeTime());
+        });
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        Object poolName = route.getMetadata().get(UPSTREAM_POOL_ATTR);
+        HttpClient client = poolName != null ? clients.get(poolName.toString()) : null;
+        if (client == null) {
+            return super.getHttpClient(route, exchange);
+        }
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            return client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+        }
+        return client;
+    }
+
+    private static ConnectionProvider buildProvider(String name, UpstreamProperties.Pool pool) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("upstream-" + name)
+                .maxConnections(pool.maxConnections())
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .maxLifeTime(pool.maxLifeTime())
+                .evictInBackground(pool.evictionInterval())
+                .metrics(true);
+        if (pool.protocol() != UpstreamProperties.Protocol.HTTP11) {
+            // HTTP/2下连接数上限内按流复用，一个连接承载多个并发请求
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(pool.maxConnections())
+                    .maxConcurrentStreams(pool.maxConcurrentStreams())
+                    .minConnections(1)
+                    .build());
+        }
+        return builder.build();
+    }
+
+    private static HttpClient buildClient(ConnectionProvider provider, UpstreamProperties.Pool pool,
+                                          HttpClientProperties httpClientProperties,
+                                          List<HttpClientCustomizer> customizers) {
+        HttpClient client = HttpClient.create(provider).compress(httpClientProperties.isCompression());
+        if (httpClientProperties.getConnectTimeout() != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, httpClientProperties.getConnectTimeout());
+        }
+        client = switch (pool.protocol()) {
+            case HTTP11 -> client.protocol(HttpProtocol.HTTP11);
+            case H2C -> client.protocol(HttpProtocol.H2C);
+            case H2 -> client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    .secure(spec -> configureSsl(spec, httpClientProperties.getSsl()));
+        };
+        for (HttpClientCustomizer customizer : customizers) {
+            client = customizer.customize(client);
+        }
+        return client;
+    }
+
+    /**
+     * 按网关 httpclient.ssl 配置构建 HTTP/2 的TLS上下文
+     */
+    private static void configureSsl(SslProvider.SslContextSpec spec, HttpClientProperties.Ssl ssl) {
+        X509Certificate[] trustedCertificates = trustedCertificates(ssl);
+        KeyManagerFactory keyManagerFactory = keyManagerFactory(ssl);
+        Http2SslContextSpec context = Http2SslContextSpec.forClient().configure(builder -> {
+            if (ssl.isUseInsecureTrustManager()) {
+                builder.trustManager(InsecureTrustManagerFactory.INSTANCE);
+            } else if (trustedCertificates.length > 0) {
+                builder.trustManager(trustedCertificates);
+            }
+            if (keyManagerFactory != null) {
+                builder.keyManager(keyManagerFactory);
+            }
+        });
+        spec.sslContext(context)
+                .handshakeTimeout(ssl.getHandshakeTimeout())
+                .closeNotifyFlushTimeout(ssl.getCloseNotifyFlushTimeout())
+                .closeNotifyReadTimeout(ssl.getCloseNotifyReadTimeout());
+    }
+
+    private static X509Certificate[] trustedCertificates(HttpClientProperties.Ssl ssl) {
+        List<X509Certificate> certificates = new ArrayList<>();
+        try {
+            CertificateFactory factory = CertificateFactory.getInstance("X.509");
+            for (String location : ssl.getTrustedX509Certificates()) {
+                try (InputStream in = ResourceUtils.getURL(location).openStream()) {
+                    for (Certificate certificate : factory.generateCertificates(in)) {
+                        certificates.add((X509Certificate) certificate);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("加载上游信任证书失败: " + e.getMessage(), e);
+        }
+        return certificates.toArray(new X509Certificate[0]);
+    }
+
+    private static KeyManagerFactory keyManagerFactory(HttpClientProperties.Ssl ssl) {
+        if (!StringUtils.hasText(ssl.getKeyStore())) {
+            return null;
+        }
+        try {
+            KeyStore keyStore = StringUtils.hasText(ssl.getKeyStoreProvider())
+                    ? KeyStore.getInstance(ssl.getKeyStoreType(), ssl.getKeyStoreProvider())
+                    : KeyStore.getInstance(ssl.getKeyStoreType());
+            char[] storePassword = ssl.getKeyStorePassword() != null ? ssl.getKeyStorePassword().toCharArray() : null;
+            try (InputStream in = ResourceUtils.getURL(ssl.getKeyStore()).openStream()) {
+                keyStore.load(in, storePassword);
+            }
+            char[] keyPassword = ssl.getKeyPassword() != null ? ssl.getKeyPassword().toCharArray() : storePassword;
+            KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            factory.init(keyStore, keyPassword);
+            return factory;
+        } catch (Exception e) {
+            throw new IllegalStateException("加载上游客户端密钥库失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,256 @@
+package com.tcyh.gateway.filter;
+
+import com.tcyh.gateway.handler.ErrorResponseWriter;
+import com.tcyh.gateway.util.AdaptiveTimeout;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 路由熔断过滤器工厂 - 熔断器 + 舱壁 + 延迟自适应超时
+ * <p>
+ * 在路由的 filters 中配置：
+ * <pre>
+ * - name: Resilience
+ *   args:
+ *     name: tc-user-service
+ *     max-concurrent-calls: 200
+ *     min-timeout-millis: 500
+ *     max-timeout-millis: 5000
+ * </pre>
+ * 舱壁限制路由的并发在途请求数，超出时立即返回503；超时按 {@link AdaptiveTimeout} 随上游延迟调整，
+ * 只计算到上游响应头到达（开始写出响应体）为止，响应体的传输不受超时限制，超时返回504；上游超时、异常与5xx响应计入熔断器失败率，熔断打开期间直接返回503，不再占用上游连接。
+ * 同名路由共享同一组熔断器与舱壁。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+public class ResilienceGatewayFilterFactory extends AbstractGatewayFilterFactory<ResilienceGatewayFilterFactory.Config> {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public ResilienceGatewayFilterFactory(CircuitBreakerRegistry circuitBreakerRegistry,
+                                          BulkheadRegistry bulkheadRegistry) {
+        super(Config.class);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(config.getName(),
+                CircuitBreakerConfig.custom()
+                        .failureRateThreshold(config.getFailureRateThreshold())
+                        .slowCallRateThreshold(config.getSlowCallRateThreshold())
+                        .slowCallDurationThreshold(Duration.ofMillis(config.getSlowCallDurationMillis()))
+                        .slidingWindowSize(config.getSlidingWindowSize())
+                        .minimumNumberOfCalls(config.getMinimumNumberOfCalls())
+                        .waitDurationInOpenState(Duration.ofSeconds(config.getWaitDurationInOpenStateSeconds()))
+                        .permittedNumberOfCallsInHalfOpenState(config.getPermittedCallsInHalfOpenState())
+                        .build());
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getName(),
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(config.getMaxConcurrentCalls())
+                        .maxWaitDuration(Duration.ZERO)
+                        .build());
+        AdaptiveTimeout timeout = new AdaptiveTimeout(config.getMinTimeoutMillis(), config.getMaxTimeoutMillis());
+
+        return (exchange, chain) -> Mono.defer(() -> {
+                    long startTime = System.nanoTime();
+                    Sinks.One<Boolean> headersReceived = Sinks.one();
+                    ServerWebExchange timedExchange = exchange.mutate()
+                            .response(new HeadersReceivedResponse(exchange.getResponse(), () -> {
+                                if (headersReceived.tryEmitValue(Boolean.TRUE).isSuccess()
+                                        && !isServerError(exchange)) {
+                                    timeout.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                                }
+                            }))
+                            .build();
+                    return Mono.firstWithSignal(chain.filter(timedExchange),
+                                    headersDeadline(timeout, headersReceived.asMono()))
+                            .then(Mono.defer(() -> checkUpstreamStatus(exchange)));
+                })
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(e -> fallback(exchange, config.getName(), e));
+    }
+
+    /**
+     * 响应头到达前超时则发出 {@link TimeoutException} 并使超时回退加倍；响应头到达后不再发出任何信号
+     */
+    private static Mono<Void> headersDeadline(AdaptiveTimeout timeout, Mono<Boolean> headersReceived) {
+        long timeoutMillis = timeout.currentMillis();
+        return Mono.delay(Duration.ofMillis(timeoutMillis))
+                .takeUntilOther(headersReceived)
+                .flatMap(tick -> {
+                    timeout.backoff();
+                    return Mono.<Void>error(new TimeoutException("upstream headers not received in " + timeoutMillis + "ms"));
+                })
+                .then(Mono.never());
+    }
+
+    /**
+     * 上游返回5xx时转为异常，使其计入熔断器失败率
+     */
+    private static Mono<Void> checkUpstreamStatus(ServerWebExchange exchange) {
+        return isServerError(exchange) ? Mono.error(UpstreamServerErrorException.INSTANCE) : Mono.empty();
+    }
+
+    private static boolean isServerError(ServerWebExchange exchange) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        return statusCode != null && statusCode.is5xxServerError();
+    }
+
+    /**
+     * 降级响应
+     */
+    private static Mono<Void> fallback(ServerWebExchange exchange, String name, Throwable e) {
+        if (e instanceof UpstreamServerErrorException) {
+            // 上游的5xx响应已写出
+            return Mono.empty();
+        }
+        if (exchange.getResponse().isCommitted()) {
+            return Mono.error(e);
+        }
+        if (e instanceof CallNotPermittedException) {
+            log.warn("熔断器打开，拒绝请求: name={}, path={}", name, exchange.getRequest().getPath().value());
+            return ErrorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, ErrorResponseWriter.CIRCUIT_OPEN);
+        }
+        if (e instanceof BulkheadFullException) {
+            log.warn("并发已满，拒绝请求: name={}, path={}", name, exchange.getRequest().getPath().value());
+            return ErrorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, ErrorResponseWriter.BULKHEAD_FULL);
+        }
+        if (e instanceof TimeoutException) {
+            log.warn("上游响应超时: name={}, path={}", name, exchange.getRequest().getPath().value());
+            return ErrorResponseWriter.write(exchange, HttpStatus.GATEWAY_TIMEOUT, ErrorResponseWriter.UPSTREAM_TIMEOUT);
+        }
+        return Mono.error(e);
+    }
+
+    /**
+     * 开始写出响应体时回调一次，此时路由过滤器已收到上游的状态码与响应头
+     */
+    private static final class HeadersReceivedResponse extends ServerHttpResponseDecorator {
+
+        private final Runnable onHeaders;
+
+        private HeadersReceivedResponse(ServerHttpResponse delegate, Runnable onHeaders) {
+            super(delegate);
+            this.onHeaders = onHeaders;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            onHeaders.run();
+            return super.writeWith(body);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            onHeaders.run();
+            return super.writeAndFlushWith(body);
+        }
+    }
+
+    /**
+     * 上游5xx响应标记，不记录堆栈
+     */
+    private static final class UpstreamServerErrorException extends RuntimeException {
+
+        private static final UpstreamServerErrorException INSTANCE = new UpstreamServerErrorException();
+
+        private UpstreamServerErrorException() {
+            super("upstream 5xx", null, false, false);
+        }
+    }
+
+    /**
+     * 路由熔断配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 熔断器与舱壁名称，建议使用上游服务名
+         */
+        private String name = "default";
+
+        /**
+         * 失败率阈值（%）
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * 慢调用率阈值（%）
+         */
+        private float slowCallRateThreshold = 80;
+
+        /**
+         * 慢调用判定时间（毫秒）
+         */
+        private long slowCallDurationMillis = 2000;
+
+        /**
+         * 滑动窗口大小（调用次数）
+         */
+        private int slidingWindowSize = 100;
+
+        /**
+         * 计算失败率前的最少调用次数
+         */
+        private int minimumNumberOfCalls = 20;
+
+        /**
+         * 熔断打开后的等待时间（秒）
+         */
+        private long waitDurationInOpenStateSeconds = 10;
+
+        /**
+         * 半开状态允许的试探调用次数
+         */
+        private int permittedCallsInHalfOpenState = 5;
+
+        /**
+         * 最大并发在途请求数
+         */
+        private int maxConcurrentCalls = 200;
+
+        /**
+         * 超时下限（毫秒）
+         */
+        private long minTimeoutMillis = 500;
+
+        /**
+         * 超时上限（毫秒）
+         */
+        private long maxTimeoutMillis = 5000;
+    }
+}
@@ -0,0 +1,325 @@
+package com.tcyh.gateway.filter;
+
+import com.tcyh.gateway.service.ResponseCacheService;
+import com.tcyh.gateway.service.ResponseCacheService.CachedResponse;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 路由响应缓存过滤器工厂 - 按需开启的GET响应缓存
+ * <p>
+ * 在路由的 filters 中配置：
+ * <pre>
+ * - name: ResponseCache
+ *   args:
+ *     ttl-seconds: 60
+ *     redis-tier: false
+ * </pre>
+ * 缓存键为路径、查询串与认证用户ID（取自认证过滤器写入的属性，不信任客户端传入的 X-User-Id）。
+ * 只缓存200响应；请求带 {@code Cache-Control: no-cache/no-store} 时跳过读取，
+ * 响应带 {@code no-store} 时不缓存，{@code s-maxage/max-age} 小于路由配置时以响应为准。
+ * 上游未返回ETag时按响应体生成弱ETag，请求的 {@code If-None-Match} 命中时返回304。
+ * 响应体最多缓冲 tc.gateway.response-cache.max-body-size：Content-Length 超过上限时直接透传；
+ * 未知长度的响应边转发边复制，超过上限即停止复制、不缓存，此时本次响应不补充ETag、不返回304。
+ * 任意请求的上游响应带 {@value #INVALIDATE_HEADER} 头时，清除当前用户的缓存。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    /**
+     * 上游服务要求清除当前用户响应缓存的响应头
+     */
+    public static final String INVALIDATE_HEADER = "X-Cache-Invalidate";
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final String ANONYMOUS = "anonymous";
+    private static final Pattern MAX_AGE = Pattern.compile("(?:s-maxage|max-age)=(\\d+)");
+
+    private final ResponseCacheService responseCacheService;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheService responseCacheService) {
+        super(Config.class);
+        this.responseCacheService = responseCacheService;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Object userId = exchange.getAttribute(ObservabilityFilter.USER_ID_ATTR);
+            String user = userId != null ? userId.toString() : ANONYMOUS;
+
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange.mutate().response(new InvalidatingResponse(exchange, user)).build());
+            }
+
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String key = ResponseCacheService.key(user, route != null ? route.getId() : "unknown",
+                    request.getPath().value(), request.getURI().getRawQuery());
+
+            if (isNoCacheRequest(request)) {
+                return forward(exchange, chain, config, key, user);
+            }
+            return responseCacheService.get(key, config.isRedisTier())
+                    .flatMap(cached -> writeCached(exchange, cached))
+                    .switchIfEmpty(Mono.defer(() -> forward(exchange, chain, config, key, user)));
+        };
+    }
+
+    /**
+     * 转发到上游并捕获可缓存的响应
+     */
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               String key, String user) {
+        CachingResponse response = new CachingResponse(exchange, config, key, user);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    /**
+     * 写出缓存命中的响应，ETag匹配时返回304
+     */
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        if (cached.cacheControl() != null) {
+            headers.setCacheControl(cached.cacheControl());
+        }
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+
+        if (etagMatches(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, cached.contentType());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * 处理上游的失效响应头，该头不透传给客户端
+     */
+    private void handleInvalidateHeader(HttpHeaders headers, String user) {
+        if (headers.containsKey(INVALIDATE_HEADER)) {
+            headers.remove(INVALIDATE_HEADER);
+            responseCacheService.invalidate(user);
+        }
+    }
+
+    private static boolean isNoCacheRequest(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    private static boolean etagMatches(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            if ("*".equals(candidate) || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 计算响应的缓存时间（毫秒），响应不允许缓存时返回 0
+     */
+    private static long resolveTtlMillis(String cacheControl, long ttlSeconds) {
+        if (cacheControl == null) {
+            return ttlSeconds * 1000;
+        }
+        if (cacheControl.contains("no-store") || cacheControl.contains("no-cache")) {
+            return 0;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        long seconds = matcher.find() ? Math.min(ttlSeconds, Long.parseLong(matcher.group(1))) : ttlSeconds;
+        return seconds * 1000;
+    }
+
+    private static byte[] concat(List<byte[]> chunks, int size) {
+        if (chunks.size() == 1) {
+            return chunks.get(0);
+        }
+        byte[] body = new byte[size];
+        int offset = 0;
+        for (byte[] chunk : chunks) {
+            System.arraycopy(chunk, 0, body, offset, chunk.length);
+            offset += chunk.length;
+        }
+        return body;
+    }
+
+    private static String weakEtag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "W/\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 捕获上游200响应并写入缓存的响应装饰器
+     */
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final Config config;
+        private final String key;
+        private final String user;
+
+        CachingResponse(ServerWebExchange exchange, Config config, String key, String user) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.config = config;
+            this.key = key;
+            this.user = user;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            handleInvalidateHeader(headers, user);
+            long ttlMillis = resolveTtlMillis(headers.getCacheControl(), config.getTtlSeconds());
+            if (!HttpStatus.OK.equals(getStatusCode()) || ttlMillis == 0) {
+                return super.writeWith(body);
+            }
+
+            long maxBodyBytes = responseCacheService.maxBodyBytes();
+            long contentLength = headers.getContentLength();
+            if (contentLength > maxBodyBytes) {
+                return super.writeWith(body);
+            }
+            if (contentLength < 0) {
+                return teeWith(body, headers, ttlMillis, maxBodyBytes);
+            }
+
+            return DataBufferUtils.join(Flux.from(body), (int) maxBodyBytes).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                String etag = StringUtils.hasText(headers.getETag()) ? headers.getETag() : weakEtag(bytes);
+                headers.setETag(etag);
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+                cache(headers, etag, bytes, ttlMillis);
+
+                if (etagMatches(exchange.getRequest(), etag)) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        /**
+         * 未知长度的响应边转发边复制，写完且未超过上限时写入缓存
+         */
+        private Mono<Void> teeWith(Publisher<? extends DataBuffer> body, HttpHeaders headers,
+                                   long ttlMillis, long maxBodyBytes) {
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+            List<byte[]> chunks = new ArrayList<>();
+            long[] size = new long[1];
+            boolean[] capturing = {true};
+            Flux<DataBuffer> teed = Flux.from(body).map(buffer -> {
+                if (!capturing[0]) {
+                    return buffer;
+                }
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                size[0] += bytes.length;
+                if (size[0] > maxBodyBytes) {
+                    capturing[0] = false;
+                    chunks.clear();
+                } else {
+                    chunks.add(bytes);
+                }
+                return bufferFactory().wrap(bytes);
+            });
+            return super.writeWith(teed).doOnSuccess(ignored -> {
+                if (capturing[0]) {
+                    byte[] bytes = concat(chunks, (int) size[0]);
+                    String etag = StringUtils.hasText(headers.getETag()) ? headers.getETag() : weakEtag(bytes);
+                    cache(headers, etag, bytes, ttlMillis);
+                }
+            });
+        }
+
+        private void cache(HttpHeaders headers, String etag, byte[] bytes, long ttlMillis) {
+            responseCacheService.put(user, key, new CachedResponse(headers.getFirst(HttpHeaders.CONTENT_TYPE), etag,
+                    headers.getCacheControl(), bytes, System.currentTimeMillis() + ttlMillis), config.isRedisTier());
+        }
+    }
+
+    /**
+     * 只处理失效响应头的响应装饰器，用于非GET请求
+     */
+    private class InvalidatingResponse extends ServerHttpResponseDecorator {
+
+        private final String user;
+
+        InvalidatingResponse(ServerWebExchange exchange, String user) {
+            super(exchange.getResponse());
+            this.user = user;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            handleInvalidateHeader(getHeaders(), user);
+            return super.writeWith(body);
+        }
+    }
+
+    /**
+     * 路由响应缓存配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 缓存时间（秒），上游 max-age 更短时以上游为准
+         */
+        private long ttlSeconds = 60;
+
+        /**
+         * 是否启用Redis二级缓存
+         */
+        private boolean redisTier = false;
+    }
+}
@@ -0,0 +1,170 @@
+package com.tcyh.gateway.handler;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 错误响应写出工具 - 基于预编码字节模板
+ * <p>
+ * 响应体格式为 {@code {"code":401,"message":"...","timestamp":...,"path":"..."}}。
+ * code与message部分在 {@link Template} 创建时编码为字节，写出时只拼接时间戳与路径，
+ * 直接写入按长度分配的 {@link DataBuffer}，不经过Map与ObjectMapper，也不产生中间字符串。
+ * 认证过滤器、限流过滤器与全局异常处理器共用。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public final class ErrorResponseWriter {
+
+    public static final Template MISSING_TOKEN = Template.of(401, "缺少认证信息");
+    public static final Template TOKEN_REVOKED = Template.of(401, "Token已失效");
+    public static final Template TOKEN_INVALID = Template.of(401, "Token无效或已过期");
+    public static final Template TOKEN_INCOMPLETE = Template.of(401, "Token信息不完整");
+    public static final Template IP_BANNED = Template.of(403, "访问已被拒绝，请稍后重试");
+    public static final Template ADMIN_REQUIRED = Template.of(403, "无权访问");
+    public static final Template TOO_MANY_REQUESTS = Template.of(429, "请求过于频繁，请稍后重试");
+    public static final Template SERVICE_UNAVAILABLE = Template.of(404, "服务不可用");
+    public static final Template CIRCUIT_OPEN = Template.of(503, "服务暂时不可用，请稍后重试");
+    public static final Template BULKHEAD_FULL = Template.of(503, "服务繁忙，请稍后重试");
+    public static final Template UPSTREAM_TIMEOUT = Template.of(504, "服务响应超时");
+    public static final Template INTERNAL_ERROR = Template.of(500, "系统内部错误");
+
+    private static final byte[] PATH_FIELD = ",\"path\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * long十进制表示的最大长度（含负号）
+     */
+    private static final int MAX_LONG_DIGITS = 20;
+
+    private ErrorResponseWriter() {
+    }
+
+    /**
+     * 设置状态码并写出错误响应
+     *
+     * @param exchange 当前请求
+     * @param status   响应状态码
+     * @param template 响应体模板
+     * @return 写出完成信号
+     */
+    public static Mono<Void> write(ServerWebExchange exchange, HttpStatusCode status, Template template) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = render(response.bufferFactory(), template,
+                System.currentTimeMillis(), exchange.getRequest().getPath().value());
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    /**
+     * 渲染错误响应体
+     *
+     * @param bufferFactory 缓冲区工厂
+     * @param template      响应体模板
+     * @param timestamp     时间戳
+     * @param path          请求路径
+     * @return 响应体缓冲区
+     */
+    public static DataBuffer render(DataBufferFactory bufferFactory, Template template, long timestamp, String path) {
+        // 常见路径为不需转义的ASCII，逐字节写入；否则转义后按UTF-8编码
+        byte[] pathBytes = isPlainAscii(path) ? null : escape(path).getBytes(StandardCharsets.UTF_8);
+        int pathLength = pathBytes == null ? path.length() : pathBytes.length;
+
+        DataBuffer buffer = bufferFactory.allocateBuffer(template.prefix.length + MAX_LONG_DIGITS
+                + PATH_FIELD.length + pathLength + SUFFIX.length);
+        buffer.write(template.prefix);
+        writeLong(buffer, timestamp);
+        buffer.write(PATH_FIELD);
+        if (pathBytes == null) {
+            for (int i = 0; i < pathLength; i++) {
+                buffer.write((byte) path.charAt(i));
+            }
+        } else {
+            buffer.write(pathBytes);
+        }
+        buffer.write(SUFFIX);
+        return buffer;
+    }
+
+    private static void writeLong(DataBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.write((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.write((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static boolean isPlainAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按JSON字符串规则转义
+     */
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 错误响应体模板，预编码code与message部分
+     */
+    public static final class Template {
+
+        private final byte[] prefix;
+
+        private Template(byte[] prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * 创建模板，常用错误应定义为常量复用
+         *
+         * @param code    业务错误码
+         * @param message 错误信息，可为 null
+         * @return 模板
+         */
+        public static Template of(int code, String message) {
+            String messageJson = message != null ? "\"" + escape(message) + "\"" : "null";
+            String prefix = "{\"code\":" + code + ",\"message\":" + messageJson + ",\"timestamp\":";
+            return new Template(prefix.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
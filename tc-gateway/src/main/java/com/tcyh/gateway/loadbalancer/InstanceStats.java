@@ -0,0 +1,105 @@
+package com.tcyh.gateway.loadbalancer;
+
+/**
+ * 单个上游实例的负载统计：在途请求数、峰值EWMA延迟与连续失败摘除状态
+ * <p>
+ * 峰值EWMA：新样本高于当前值时直接取新样本（对变慢立即响应），低于时按
+ * {@code w = exp(-Δt / τ)} 指数衰减（对恢复平滑响应）。负载 = (延迟 + 1µs) × (在途请求数 + 1)。
+ * 所有时间参数均为 {@link System#nanoTime()} 纳秒值，便于在模拟中注入虚拟时间。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class InstanceStats {
+
+    private final long decayNanos;
+
+    private int outstanding;
+    private double costNanos;
+    private long lastUpdateNanos;
+    private int consecutiveErrors;
+    private int ejections;
+    private long ejectedUntilNanos;
+    private long lastSeenNanos;
+
+    public InstanceStats(long decayNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.lastSeenNanos = nowNanos;
+    }
+
+    /**
+     * 请求开始
+     *
+     * @param nowNanos 当前时间
+     */
+    public synchronized void start(long nowNanos) {
+        outstanding++;
+        lastSeenNanos = nowNanos;
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param latencyNanos 请求耗时
+     * @param failed       是否失败（异常或5xx）
+     * @param nowNanos     当前时间
+     * @return 本次是否触发摘除
+     */
+    public synchronized boolean complete(long latencyNanos, boolean failed, long nowNanos,
+                                         int maxConsecutiveErrors, long baseEjectionNanos, long maxEjectionNanos) {
+        outstanding = Math.max(0, outstanding - 1);
+        lastSeenNanos = nowNanos;
+        updateCost(latencyNanos, nowNanos);
+        if (!failed) {
+            consecutiveErrors = 0;
+            if (nowNanos >= ejectedUntilNanos) {
+                ejections = 0;
+            }
+            return false;
+        }
+        if (++consecutiveErrors < maxConsecutiveErrors || nowNanos < ejectedUntilNanos) {
+            return false;
+        }
+        ejections++;
+        consecutiveErrors = 0;
+        long ejectionNanos = Math.min(maxEjectionNanos, baseEjectionNanos * ejections);
+        ejectedUntilNanos = nowNanos + ejectionNanos;
+        return true;
+    }
+
+    /**
+     * 当前负载，越小越优先
+     */
+    public synchronized double load(long nowNanos) {
+        double cost = costNanos;
+        if (lastUpdateNanos != 0 && outstanding == 0) {
+            // 空闲实例的延迟随时间衰减，避免偶发慢请求让实例长期得不到流量
+            cost *= Math.exp(-(double) Math.max(0, nowNanos - lastUpdateNanos) / decayNanos);
+        }
+        return (cost + 1_000) * (outstanding + 1);
+    }
+
+    /**
+     * 是否处于摘除状态
+     */
+    public synchronized boolean isEjected(long nowNanos) {
+        return nowNanos < ejectedUntilNanos;
+    }
+
+    /**
+     * 是否已闲置超过 idleNanos：无在途请求、未处于摘除状态且期间没有请求
+     */
+    public synchronized boolean isIdle(long nowNanos, long idleNanos) {
+        return outstanding == 0 && nowNanos >= ejectedUntilNanos && nowNanos - lastSeenNanos > idleNanos;
+    }
+
+    private void updateCost(long latencyNanos, long nowNanos) {
+        if (lastUpdateNanos == 0 || latencyNanos > costNanos) {
+            costNanos = latencyNanos;
+        } else {
+            double weight = Math.exp(-(double) Math.max(0, nowNanos - lastUpdateNanos) / decayNanos);
+            costNanos = costNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastUpdateNanos = nowNanos;
+    }
+}
@@ -0,0 +1,149 @@
+package com.tcyh.gateway.loadbalancer;
+
+import com.tcyh.gateway.config.LoadBalancerProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上游实例负载统计与选择
+ * <p>
+ * 按 host:port 维护各实例的 {@link InstanceStats}，由 {@link com.tcyh.gateway.filter.InstanceStatsFilter}
+ * 记录网关自身测得的延迟与失败。选择时先排除摘除中的实例（最多摘除 maxEjectionPercent），
+ * 再用“二选一”（power of two choices）比较两个随机实例的峰值EWMA负载，取较小者。
+ * 闲置超过 idleTimeout 的统计在请求结束时顺带清理（每个 idleTimeout 周期最多一次），
+ * 避免实例扩缩容、IP变化后旧条目常驻内存。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+public class InstanceStatsRegistry {
+
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final long decayNanos;
+    private final int maxConsecutiveErrors;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjectionPercent;
+    private final long idleNanos;
+    private final AtomicLong lastPruneNanos = new AtomicLong(System.nanoTime());
+
+    public InstanceStatsRegistry(LoadBalancerProperties properties) {
+        this.decayNanos = properties.decayTime().toNanos();
+        this.maxConsecutiveErrors = properties.consecutiveErrors();
+        this.baseEjectionNanos = properties.baseEjectionTime().toNanos();
+        this.maxEjectionNanos = properties.maxEjectionTime().toNanos();
+        this.maxEjectionPercent = properties.maxEjectionPercent();
+        this.idleNanos = properties.idleTimeout().toNanos();
+    }
+
+    /**
+     * 选择实例
+     *
+     * @param instances 候选实例
+     * @param nowNanos  当前时间
+     * @return 选中的实例，候选为空时返回 null
+     */
+    public ServiceInstance select(List<ServiceInstance> instances, long nowNanos) {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        List<ServiceInstance> candidates = available(instances, nowNanos);
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return stats(a, nowNanos).load(nowNanos) <= stats(b, nowNanos).load(nowNanos) ? a : b;
+    }
+
+    /**
+     * 请求开始
+     */
+    public void onStart(ServiceInstance instance, long nowNanos) {
+        stats(instance, nowNanos).start(nowNanos);
+    }
+
+    /**
+     * 请求结束
+     */
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed, long nowNanos) {
+        boolean ejected = stats(instance, nowNanos).complete(latencyNanos, failed, nowNanos,
+                maxConsecutiveErrors, baseEjectionNanos, maxEjectionNanos);
+        if (ejected) {
+            log.warn("上游实例连续失败，暂时摘除: serviceId={}, instance={}", instance.getServiceId(), key(instance));
+        }
+        pruneIfDue(nowNanos);
+    }
+
+    /**
+     * 清理闲置的实例统计，同一周期内只有一个线程执行
+     */
+    private void pruneIfDue(long nowNanos) {
+        long last = lastPruneNanos.get();
+        if (nowNanos - last < idleNanos || !lastPruneNanos.compareAndSet(last, nowNanos)) {
+            return;
+        }
+        int before = stats.size();
+        stats.values().removeIf(instanceStats -> instanceStats.isIdle(nowNanos, idleNanos));
+        int removed = before - stats.size();
+        if (removed > 0) {
+            log.debug("清理闲置实例统计: removed={}, remaining={}", removed, stats.size());
+        }
+    }
+
+    /**
+     * 排除摘除中的实例，摘除数量超过上限时保留负载最低的部分摘除实例
+     */
+    private List<ServiceInstance> available(List<ServiceInstance> instances, long nowNanos) {
+        List<ServiceInstance> healthy = new ArrayList<>(instances.size());
+        List<ServiceInstance> ejected = null;
+        for (ServiceInstance instance : instances) {
+            if (stats(instance, nowNanos).isEjected(nowNanos)) {
+                if (ejected == null) {
+                    ejected = new ArrayList<>();
+                }
+                ejected.add(instance);
+            } else {
+                healthy.add(instance);
+            }
+        }
+        if (ejected == null) {
+            return instances;
+        }
+        int maxEjected = instances.size() * maxEjectionPercent / 100;
+        if (ejected.size() > maxEjected) {
+            ejected.sort((x, y) -> Double.compare(stats(x, nowNanos).load(nowNanos),
+                    stats(y, nowNanos).load(nowNanos)));
+            healthy.addAll(ejected.subList(0, ejected.size() - maxEjected));
+        }
+        return healthy;
+    }
+
+    private InstanceStats stats(ServiceInstance instance, long nowNanos) {
+        String key = key(instance);
+        InstanceStats instanceStats = stats.get(key);
+        return instanceStats != null ? instanceStats : stats.computeIfAbsent(key, k -> new InstanceStats(decayNanos, nowNanos));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,43 @@
+package com.tcyh.gateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于峰值EWMA延迟的负载均衡器，替代默认的轮询
+ * <p>
+ * 延迟与失败由网关自身测得（见 {@link InstanceStatsRegistry}），GC停顿或性能下降的实例
+ * 负载迅速升高而少分流量，连续失败的实例被暂时摘除。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStatsRegistry registry;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                InstanceStatsRegistry registry) {
+        this.supplierProvider = supplierProvider;
+        this.registry = registry;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            ServiceInstance instance = registry.select(instances, System.nanoTime());
+            return instance != null ? new DefaultResponse(instance) : new EmptyResponse();
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package com.tcyh.gateway.route;
+
+import com.alibaba.cloud.nacos.NacosConfigManager;
+import com.alibaba.nacos.api.config.ConfigService;
+import com.alibaba.nacos.api.config.listener.AbstractListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcyh.gateway.config.DynamicRouteProperties;
+import com.tcyh.gateway.util.PublicPathMatcher;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于Nacos配置的路由定义仓库
+ * <p>
+ * 启动时从Nacos读取路由与公开路径配置并注册监听，配置变更时先完整解析与校验，
+ * 再整体替换路由列表并发布 {@link RefreshRoutesEvent}，由 CachingRouteLocator 在后台重建路由后原子切换；
+ * 公开路径同时交给 {@link PublicPathMatcher} 预编译后切换。进行中的请求继续使用原路由，不受影响。
+ * 配置解析或校验失败时保留当前配置。Nacos中没有配置时使用本地的 fallback 路由与 tc.gateway.auth 公开路径。
+ * <p>
+ * 配置内容示例：
+ * <pre>
+ * {
+ *   "publicPaths": ["/api/auth/login", "/api/public/**"],
+ *   "routes": [
+ *     {"id": "tc-user-service", "uri": "lb://tc-user-service",
+ *      "predicates": ["Path=/api/auth/**"], "filters": ["StripPrefix=1"]}
+ *   ]
+ * }
+ * </pre>
+ * 通过 save/delete 接口（如 actuator gateway 端点）做的修改只在本实例生效，下次Nacos推送时被覆盖。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(DynamicRouteProperties.class)
+public class NacosRouteDefinitionRepository implements RouteDefinitionRepository {
+
+    private final DynamicRouteProperties properties;
+    private final ObjectProvider<NacosConfigManager> nacosConfigManager;
+    private final PublicPathMatcher publicPathMatcher;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 当前生效的路由定义，按路由ID索引，整体替换
+     */
+    private volatile Map<String, RouteDefinition> routes;
+
+    public NacosRouteDefinitionRepository(DynamicRouteProperties properties,
+                                          ObjectProvider<NacosConfigManager> nacosConfigManager,
+                                          PublicPathMatcher publicPathMatcher,
+                                          ApplicationEventPublisher eventPublisher,
+                                          ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.nacosConfigManager = nacosConfigManager;
+        this.publicPathMatcher = publicPathMatcher;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.routes = index(properties.fallback());
+    }
+
+    @PostConstruct
+    public void init() {
+        NacosConfigManager configManager = nacosConfigManager.getIfAvailable();
+        if (configManager == null) {
+            log.info("未启用Nacos配置，使用本地路由: size={}", routes.size());
+            return;
+        }
+        ConfigService configService = configManager.getConfigService();
+        try {
+            String content = configService.getConfig(properties.dataId(), properties.group(),
+                    properties.timeout().toMillis());
+            apply(content, false);
+            configService.addListener(properties.dataId(), properties.group(), new AbstractListener() {
+                @Override
+                public void receiveConfigInfo(String configInfo) {
+                    apply(configInfo, true);
+                }
+            });
+        } catch (Exception e) {
+            log.error("读取Nacos路由配置失败，使用本地路由: dataId={}, error={}", properties.dataId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public Flux<RouteDefinition> getRouteDefinitions() {
+        return Flux.fromIterable(routes.values());
+    }
+
+    @Override
+    public Mono<Void> save(Mono<RouteDefinition> route) {
+        return route.doOnNext(definition -> {
+            Map<String, RouteDefinition> updated = new LinkedHashMap<>(routes);
+            updated.put(definition.getId(), definition);
+            routes = updated;
+        }).then();
+    }
+
+    @Override
+    public Mono<Void> delete(Mono<String> routeId) {
+        return routeId.doOnNext(id -> {
+            Map<String, RouteDefinition> updated = new LinkedHashMap<>(routes);
+            updated.remove(id);
+            routes = updated;
+        }).then();
+    }
+
+    /**
+     * 解析并应用一份配置，失败时保留当前配置
+     *
+     * @param content 配置内容
+     * @param refresh 是否通知网关重建路由，启动时由网关自身触发首次加载
+     */
+    private synchronized void apply(String content, boolean refresh) {
+        if (!StringUtils.hasText(content)) {
+            log.warn("Nacos路由配置为空，保留当前配置: dataId={}", properties.dataId());
+            return;
+        }
+        try {
+            RouteConfig config = objectMapper.readValue(content, RouteConfig.class);
+            Map<String, RouteDefinition> updated = config.routes() != null ? index(config.routes()) : null;
+            // 先编译公开路径，编译失败时路由也不切换
+            if (config.publicPaths() != null) {
+                publicPathMatcher.update(config.publicPaths());
+            }
+            if (updated != null) {
+                routes = updated;
+                if (refresh) {
+                    eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+                }
+            }
+            log.info("Nacos路由配置已应用: routes={}, publicPaths={}", routes.keySet(), publicPathMatcher.getPublicPaths());
+        } catch (Exception e) {
+            log.error("Nacos路由配置无效，保留当前配置: dataId={}, error={}", properties.dataId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 校验路由定义并按ID索引
+     */
+    private static Map<String, RouteDefinition> index(List<RouteDefinition> definitions) {
+        Map<String, RouteDefinition> indexed = new LinkedHashMap<>();
+        for (RouteDefinition definition : definitions) {
+            if (!StringUtils.hasText(definition.getId()) || definition.getUri() == null) {
+                throw new IllegalArgumentException("路由缺少id或uri: " + definition);
+            }
+            if (indexed.putIfAbsent(definition.getId(), definition) != null) {
+                throw new IllegalArgumentException("路由id重复: " + definition.getId());
+            }
+        }
+        return Collections.unmodifiableMap(indexed);
+    }
+
+    /**
+     * Nacos中的路由配置，字段为 null 表示不变更
+     *
+     * @param publicPaths 公开路径
+     * @param routes      路由定义
+     */
+    record RouteConfig(List<String> publicPaths, List<RouteDefinition> routes) {
+    }
+}
@@ -0,0 +1,314 @@
+package com.tcyh.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tcyh.common.constant.CacheConsts;
+import com.tcyh.gateway.config.AutoBanProperties;
+import com.tcyh.gateway.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 自动封禁服务 - 滑动窗口失败计数 + 本地封禁集合
+ * <p>
+ * 认证过滤器在每次token验证失败时调用 {@link #recordFailure(String)}，按IP与所在 /24 网段
+ * 分别累加滑动窗口计数，超过阈值即封禁，同一目标再次触发时封禁时长翻倍。
+ * 封禁写入Redis（带过期时间）并通过Redisson {@link RTopic} 通知所有网关实例，
+ * 各实例维护本地封禁集合，在解析JWT之前以一次哈希查找拒绝请求；
+ * 后台线程定期从Redis全量同步，补偿断线期间丢失的通知。
+ * 被封禁的IP不再产生失败计数，因此网段计数只会被同网段的多个IP推高。
+ * 网段封禁只针对IPv4。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(AutoBanProperties.class)
+public class AutoBanService implements DisposableBean {
+
+    private static final String BAN = "BAN";
+    private static final String UNBAN = "UNBAN";
+    private static final String SEPARATOR = "|";
+    private static final String SUBNET_SUFFIX = ".0/24";
+    private static final int SCAN_COUNT = 1000;
+    private static final int MAX_STRIKE_SHIFT = 16;
+
+    private static final Pattern IPV4 = Pattern.compile("(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)(\\.(25[0-5]|2[0-4]\\d|1\\d\\d|[1-9]?\\d)){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:]{2,39}");
+
+    private final RedissonClient redissonClient;
+    private final AutoBanProperties properties;
+    private final Set<String> allowList;
+    private final Cache<String, SlidingWindowCounter> ipCounters;
+    private final Cache<String, SlidingWindowCounter> subnetCounters;
+    private final Cache<String, Integer> strikes;
+    private final Counter rejectedCounter;
+
+    /**
+     * 当前生效的封禁，目标（IP 或 "a.b.c.0/24"）到到期时间戳
+     */
+    private final Map<String, Long> bans = new ConcurrentHashMap<>();
+
+    private RTopic topic;
+    private ScheduledExecutorService syncExecutor;
+
+    public AutoBanService(RedissonClient redissonClient, AutoBanProperties properties, MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.allowList = Set.copyOf(properties.allowList());
+        this.ipCounters = newCounterCache(properties);
+        this.subnetCounters = newCounterCache(properties);
+        this.strikes = Caffeine.newBuilder()
+                .maximumSize(properties.maxTracked())
+                .expireAfterWrite(properties.maxBanDuration())
+                .build();
+        this.rejectedCounter = Counter.builder("tc.gateway.autoban.rejected")
+                .description("被封禁而拒绝的请求数")
+                .register(meterRegistry);
+        meterRegistry.gauge("tc.gateway.autoban.active", bans, Map::size);
+    }
+
+    @PostConstruct
+    public void init() {
+        topic = redissonClient.getTopic(CacheConsts.SECURITY_BAN_TOPIC, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, message) -> onMessage(message));
+
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "auto-ban-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.syncInterval().toMillis();
+        syncExecutor.scheduleWithFixedDelay(this::sync, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 判断IP或其所在网段是否被封禁，被封禁时计入拒绝指标
+     *
+     * @param ip 客户端IP
+     * @return 是否被封禁
+     */
+    public boolean isBanned(String ip) {
+        if (bans.isEmpty()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        String subnet = subnetOf(ip);
+        if (isActive(ip, now) || (subnet != null && isActive(subnet, now))) {
+            rejectedCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 记录一次认证失败，超过阈值时封禁IP或网段
+     *
+     * @param ip 客户端IP
+     */
+    public void recordFailure(String ip) {
+        if (!Boolean.TRUE.equals(properties.enabled()) || allowList.contains(ip)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (count(ipCounters, ip, now) >= properties.ipThreshold()) {
+            ipCounters.invalidate(ip);
+            ban(ip, escalatedDuration(ip), "IP认证失败次数超过阈值");
+        }
+        String subnet = subnetOf(ip);
+        if (subnet != null && count(subnetCounters, subnet, now) >= properties.subnetThreshold()) {
+            subnetCounters.invalidate(subnet);
+            ban(subnet, escalatedDuration(subnet), "网段认证失败次数超过阈值");
+        }
+    }
+
+    /**
+     * 封禁IP或网段，写入Redis并通知所有网关实例
+     *
+     * @param target   IP 或 "a.b.c.0/24"
+     * @param duration 封禁时长
+     * @param reason   封禁原因，仅用于日志
+     */
+    public void ban(String target, Duration duration, String reason) {
+        long expiresAt = System.currentTimeMillis() + duration.toMillis();
+        bans.put(target, expiresAt);
+        redissonClient.getBucket(CacheConsts.SECURITY_BAN_PREFIX + target, StringCodec.INSTANCE)
+                .setAsync(String.valueOf(expiresAt), duration.toMillis(), TimeUnit.MILLISECONDS);
+        topic.publishAsync(BAN + SEPARATOR + target + SEPARATOR + expiresAt);
+        log.warn("封禁 target={} duration={} reason={}", target, duration, reason);
+    }
+
+    /**
+     * 解除封禁，同时清除累计触发次数
+     *
+     * @param target IP 或 "a.b.c.0/24"
+     */
+    public void unban(String target) {
+        bans.remove(target);
+        strikes.invalidate(target);
+        redissonClient.getBucket(CacheConsts.SECURITY_BAN_PREFIX + target).deleteAsync();
+        topic.publishAsync(UNBAN + SEPARATOR + target);
+        log.info("解除封禁 target={}", target);
+    }
+
+    /**
+     * 当前生效的封禁列表，按到期时间倒序
+     */
+    public List<Ban> listBans() {
+        long now = System.currentTimeMillis();
+        List<Ban> result = new ArrayList<>();
+        bans.forEach((target, expiresAt) -> {
+            if (expiresAt > now) {
+                result.add(new Ban(target, expiresAt));
+            }
+        });
+        result.sort(Comparator.comparingLong(Ban::expiresAt).reversed());
+        return result;
+    }
+
+    /**
+     * 规范化封禁目标：IPv4、IPv6 或 IPv4 /24 网段（主机位归零）
+     *
+     * @param target 用户输入的目标
+     * @return 规范化后的目标，不合法时返回 null
+     */
+    public static String normalizeTarget(String target) {
+        if (target == null) {
+            return null;
+        }
+        String value = target.trim();
+        if (value.endsWith("/24")) {
+            String address = value.substring(0, value.length() - 3);
+            return IPV4.matcher(address).matches() ? subnetOf(address) : null;
+        }
+        if (IPV4.matcher(value).matches()) {
+            return value;
+        }
+        return value.indexOf(':') >= 0 && IPV6.matcher(value).matches() ? value.toLowerCase() : null;
+    }
+
+    /**
+     * IPv4地址所在的 /24 网段，IPv6返回 null
+     */
+    static String subnetOf(String ip) {
+        int lastDot = ip.lastIndexOf('.');
+        if (lastDot < 0 || ip.indexOf(':') >= 0) {
+            return null;
+        }
+        return ip.substring(0, lastDot) + SUBNET_SUFFIX;
+    }
+
+    private boolean isActive(String target, long now) {
+        Long expiresAt = bans.get(target);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= now) {
+            bans.remove(target, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    private long count(Cache<String, SlidingWindowCounter> counters, String key, long now) {
+        return counters.get(key, k -> new SlidingWindowCounter(properties.window().toMillis(), properties.slots()))
+                .increment(now);
+    }
+
+    /**
+     * 按累计触发次数翻倍封禁时长，不超过上限
+     */
+    private Duration escalatedDuration(String target) {
+        int strike = strikes.asMap().merge(target, 1, Integer::sum);
+        Duration duration = properties.banDuration().multipliedBy(1L << Math.min(strike - 1, MAX_STRIKE_SHIFT));
+        return duration.compareTo(properties.maxBanDuration()) > 0 ? properties.maxBanDuration() : duration;
+    }
+
+    /**
+     * 处理其他实例（包括本实例）发布的封禁变更通知
+     */
+    private void onMessage(String message) {
+        String[] parts = message.split("\\|");
+        if (BAN.equals(parts[0]) && parts.length == 3) {
+            bans.put(parts[1], Long.parseLong(parts[2]));
+        } else if (UNBAN.equals(parts[0]) && parts.length == 2) {
+            bans.remove(parts[1]);
+        } else {
+            log.warn("无法识别的封禁通知: {}", message);
+        }
+    }
+
+    /**
+     * 从Redis全量同步封禁列表，同步开始前已存在但Redis中已没有的封禁视为已解除
+     */
+    private void sync() {
+        Set<String> before = Set.copyOf(bans.keySet());
+        try {
+            int prefixLength = CacheConsts.SECURITY_BAN_PREFIX.length();
+            List<String> keys = new ArrayList<>();
+            redissonClient.getKeys()
+                    .getKeysByPattern(CacheConsts.SECURITY_BAN_PREFIX + "*", SCAN_COUNT)
+                    .forEach(keys::add);
+            Map<String, Long> fresh = new HashMap<>();
+            if (!keys.isEmpty()) {
+                Map<String, Object> values = redissonClient.getBuckets(StringCodec.INSTANCE)
+                        .get(keys.toArray(new String[0]));
+                values.forEach((key, value) -> fresh.put(key.substring(prefixLength), Long.parseLong((String) value)));
+            }
+            bans.putAll(fresh);
+            for (String target : before) {
+                if (!fresh.containsKey(target)) {
+                    bans.remove(target);
+                }
+            }
+            log.debug("封禁列表同步完成: size={}", bans.size());
+        } catch (Exception e) {
+            log.error("封禁列表同步失败: {}", e.getMessage());
+        }
+    }
+
+    private static Cache<String, SlidingWindowCounter> newCounterCache(AutoBanProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maxTracked())
+                .expireAfterAccess(properties.window())
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 封禁条目
+     *
+     * @param target    IP 或 "a.b.c.0/24"
+     * @param expiresAt 到期时间戳（毫秒）
+     */
+    public record Ban(String target, long expiresAt) {
+    }
+}
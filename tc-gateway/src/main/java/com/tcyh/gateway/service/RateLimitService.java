@@ -0,0 +1,138 @@
+package com.tcyh.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tcyh.gateway.config.RateLimitProperties;
+import com.tcyh.gateway.util.QuotaBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式限流服务 - 本地令牌桶 + Redis全局配额对账
+ * <p>
+ * 请求线程只访问本地 {@link QuotaBucket}，不访问Redis；后台线程按固定间隔把各令牌桶的未上报用量
+ * 通过一次流水线 {@link RBatch} 以 INCRBY 方式累加到Redis中按窗口划分的计数键，
+ * 再用返回的全局用量校正本地令牌数，使多个网关实例共享同一份配额。
+ * Redis不可用时各实例退化为按本地计数限流。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitService implements DisposableBean {
+
+    private static final String RATE_LIMIT_PREFIX = "rate:limit:";
+
+    private final RedissonClient redissonClient;
+    private final RateLimitProperties properties;
+    private final Cache<String, QuotaBucket> buckets;
+
+    private ScheduledExecutorService syncExecutor;
+
+    public RateLimitService(RedissonClient redissonClient, RateLimitProperties properties) {
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rate-limit-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.syncInterval().toMillis();
+        syncExecutor.scheduleWithFixedDelay(this::sync, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key    限流键，由路由ID、维度与维度值组成
+     * @param limit  每个窗口允许的请求数
+     * @param window 窗口长度
+     * @return 获取成功返回 0，否则返回建议的重试等待时间（毫秒）
+     */
+    public long tryAcquire(String key, long limit, Duration window) {
+        long windowMillis = window.toMillis();
+        QuotaBucket bucket = buckets.get(key, k -> new QuotaBucket(limit, windowMillis));
+        if (bucket.getLimit() != limit || bucket.getWindowMillis() != windowMillis) {
+            // 路由规则已变更（如动态路由刷新），按新规则重建令牌桶，旧桶未上报的用量随之丢弃
+            bucket = buckets.asMap().compute(key, (k, old) ->
+                    old != null && old.getLimit() == limit && old.getWindowMillis() == windowMillis
+                            ? old : new QuotaBucket(limit, windowMillis));
+        }
+        long now = System.currentTimeMillis();
+        return bucket.tryAcquire(now) ? 0 : bucket.millisUntilRefill(now);
+    }
+
+    /**
+     * 上报各令牌桶的未上报用量并校正本地令牌数
+     */
+    private synchronized void sync() {
+        List<Pending> pendings = new ArrayList<>();
+        try {
+            RBatch batch = redissonClient.createBatch();
+            for (Map.Entry<String, QuotaBucket> entry : buckets.asMap().entrySet()) {
+                QuotaBucket bucket = entry.getValue();
+                QuotaBucket.Drain drain = bucket.drain();
+                if (drain == null) {
+                    continue;
+                }
+                String redisKey = RATE_LIMIT_PREFIX + entry.getKey() + ":" + drain.windowIndex();
+                RFuture<Long> future = batch.getAtomicLong(redisKey).addAndGetAsync(drain.count());
+                if (drain.first()) {
+                    batch.getAtomicLong(redisKey).expireAsync(Duration.ofMillis(bucket.getWindowMillis() * 2));
+                }
+                pendings.add(new Pending(bucket, drain, future));
+            }
+            if (pendings.isEmpty()) {
+                return;
+            }
+            batch.execute();
+        } catch (Exception e) {
+            log.error("限流配额对账失败: {}", e.getMessage());
+        }
+
+        for (Pending pending : pendings) {
+            long globalCount;
+            try {
+                globalCount = pending.future().toCompletableFuture().getNow(-1L);
+            } catch (Exception e) {
+                globalCount = -1;
+            }
+            pending.bucket().reconcile(pending.drain().windowIndex(), pending.drain().count(), globalCount);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    private record Pending(QuotaBucket bucket, QuotaBucket.Drain drain, RFuture<Long> future) {
+
+    }
+}
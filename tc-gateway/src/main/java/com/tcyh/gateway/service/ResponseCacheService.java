@@ -0,0 +1,261 @@
+package com.tcyh.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tcyh.common.constant.CacheConsts;
+import com.tcyh.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关响应缓存服务 - 本地Caffeine + 可选Redis二级缓存
+ * <p>
+ * 缓存键为 {@code resp:cache:<用户ID>:<路由ID>:<路径>?<查询串>}，按用户隔离，
+ * 因此带 {@code Cache-Control: private} 的响应同样可以缓存。
+ * 写入Redis的条目同时记入该用户的索引集合 {@code resp:cache:index:<用户ID>}。
+ * 失效时由发布方按索引删除一次Redis条目，再通过Redisson {@link RTopic} 广播（网关自身或业务服务均可发布），
+ * 各网关实例收到后只清除本地条目，不再各自扫描Redis。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheService {
+
+    private static final String RESPONSE_CACHE_PREFIX = "resp:cache:";
+    private static final String ALL = "*";
+
+    /**
+     * KEYS[1] 用户索引；ARGV[1] 缓存键，ARGV[2] 条目毫秒数。索引的过期时间只延长不缩短，覆盖其中最晚过期的条目
+     */
+    private static final String INDEX_SCRIPT = """
+            redis.call('SADD', KEYS[1], ARGV[1])
+            if redis.call('PTTL', KEYS[1]) < tonumber(ARGV[2]) then
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 1
+            """;
+
+    private final RedissonClient redissonClient;
+    private final RedissonReactiveClient redissonReactiveClient;
+    private final ObjectMapper objectMapper;
+    private final ResponseCacheProperties properties;
+    private final Cache<String, CachedResponse> cache;
+
+    public ResponseCacheService(RedissonClient redissonClient, RedissonReactiveClient redissonReactiveClient,
+                                ObjectMapper objectMapper, ResponseCacheProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.redissonClient = redissonClient;
+        this.redissonReactiveClient = redissonReactiveClient;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfter(new ResponseExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response.cache");
+    }
+
+    @PostConstruct
+    public void init() {
+        RTopic topic = redissonClient.getTopic(CacheConsts.RESPONSE_CACHE_INVALIDATE_TOPIC, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, userId) -> onInvalidated(userId));
+    }
+
+    /**
+     * 生成缓存键
+     */
+    public static String key(String userId, String routeId, String path, String query) {
+        StringBuilder builder = new StringBuilder(RESPONSE_CACHE_PREFIX.length() + path.length() + 48)
+                .append(RESPONSE_CACHE_PREFIX).append(userId).append(':').append(routeId).append(':').append(path);
+        if (query != null) {
+            builder.append('?').append(query);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 可缓存的最大响应体（字节）
+     */
+    public long maxBodyBytes() {
+        return properties.maxBodySize().toBytes();
+    }
+
+    /**
+     * 查询缓存，本地未命中时按需回查Redis
+     *
+     * @param key       缓存键
+     * @param redisTier 是否启用Redis二级缓存
+     * @return 未过期的缓存响应，未命中时为空
+     */
+    public Mono<CachedResponse> get(String key, boolean redisTier) {
+        CachedResponse local = cache.getIfPresent(key);
+        if (local != null && !local.isExpired()) {
+            return Mono.just(local);
+        }
+        if (!redisTier) {
+            return Mono.empty();
+        }
+        return redissonReactiveClient.<byte[]>getBucket(key, ByteArrayCodec.INSTANCE).get()
+                .flatMap(bytes -> Mono.justOrEmpty(deserialize(bytes)))
+                .filter(response -> !response.isExpired())
+                .doOnNext(response -> cache.put(key, response))
+                .onErrorResume(e -> {
+                    log.warn("读取Redis响应缓存失败: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param user      用户ID
+     * @param key       缓存键
+     * @param response  响应
+     * @param redisTier 是否同时写入Redis
+     */
+    public void put(String user, String key, CachedResponse response, boolean redisTier) {
+        if (response.body().length > maxBodyBytes()) {
+            return;
+        }
+        cache.put(key, response);
+        if (!redisTier) {
+            return;
+        }
+        long ttlMillis = response.expiresAt() - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(response);
+            redissonReactiveClient.<byte[]>getBucket(key, ByteArrayCodec.INSTANCE)
+                    .set(bytes, ttlMillis, TimeUnit.MILLISECONDS)
+                    .then(redissonReactiveClient.getScript(StringCodec.INSTANCE).<Long>eval(RScript.Mode.READ_WRITE,
+                            INDEX_SCRIPT, RScript.ReturnType.INTEGER,
+                            List.of(CacheConsts.RESPONSE_CACHE_INDEX_PREFIX + user), key, String.valueOf(ttlMillis)))
+                    .subscribe(null, e -> log.warn("写入Redis响应缓存失败: {}", e.getMessage()));
+        } catch (Exception e) {
+            log.warn("序列化响应缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 使某用户的缓存失效：立即清除本地条目，删除Redis条目后广播给所有网关实例
+     *
+     * @param userId 用户ID，"*" 表示清空全部
+     */
+    public void invalidate(String userId) {
+        invalidateLocal(userId);
+        deleteRedisEntries(userId)
+                .onErrorResume(e -> {
+                    log.warn("删除Redis响应缓存失败: userId={}, error={}", userId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then(redissonReactiveClient.getTopic(CacheConsts.RESPONSE_CACHE_INVALIDATE_TOPIC, StringCodec.INSTANCE)
+                        .publish(userId))
+                .subscribe(null, e -> log.warn("响应缓存失效通知失败: userId={}, error={}", userId, e.getMessage()));
+    }
+
+    /**
+     * 删除Redis条目：单个用户按索引删除；清空全部时按前缀扫描，只在发布方执行一次
+     */
+    private Mono<Long> deleteRedisEntries(String userId) {
+        if (ALL.equals(userId)) {
+            return redissonReactiveClient.getKeys().deleteByPattern(RESPONSE_CACHE_PREFIX + "*");
+        }
+        String indexKey = CacheConsts.RESPONSE_CACHE_INDEX_PREFIX + userId;
+        return redissonReactiveClient.<String>getSet(indexKey, StringCodec.INSTANCE).readAll()
+                .flatMap(keys -> {
+                    List<String> toDelete = new ArrayList<>(keys);
+                    toDelete.add(indexKey);
+                    return redissonReactiveClient.getKeys().delete(toDelete.toArray(new String[0]));
+                });
+    }
+
+    /**
+     * 处理失效通知，Redis条目已由发布方删除
+     */
+    private void onInvalidated(String userId) {
+        invalidateLocal(userId);
+    }
+
+    /**
+     * 清除本地缓存条目
+     */
+    private void invalidateLocal(String userId) {
+        if (ALL.equals(userId)) {
+            cache.invalidateAll();
+        } else {
+            String prefix = RESPONSE_CACHE_PREFIX + userId + ":";
+            cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        log.debug("响应缓存已失效: userId={}", userId);
+    }
+
+    private CachedResponse deserialize(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, CachedResponse.class);
+        } catch (Exception e) {
+            log.warn("反序列化响应缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存的响应
+     *
+     * @param contentType  Content-Type
+     * @param etag         ETag
+     * @param cacheControl 上游返回的 Cache-Control
+     * @param body         响应体
+     * @param expiresAt    过期时间戳（毫秒）
+     */
+    public record CachedResponse(String contentType, String etag, String cacheControl, byte[] body, long expiresAt) {
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    /**
+     * 按响应自身的过期时间计算条目过期时间
+     */
+    private static final class ResponseExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            long remainingMillis = value.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
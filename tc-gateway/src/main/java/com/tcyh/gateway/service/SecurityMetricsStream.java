@@ -0,0 +1,210 @@
+package com.tcyh.gateway.service;
+
+import com.tcyh.gateway.util.LatencyHistogram;
+import com.tcyh.gateway.util.SpaceSaving;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实时安全指标流 - 按秒聚合的认证指标，保存在内存环形缓冲区中并推送给订阅者
+ * <p>
+ * 请求线程只在当前秒窗口内做 {@link LongAdder} 自增与直方图记录，不访问Redis、不持有锁，
+ * 攻击IP也只在秒窗口内按IP计数。后台线程每秒把已退役一个周期的窗口汇总为 {@link Snapshot}：
+ * 认证成功/失败数、黑名单命中数、认证p99延迟，以及把窗口内的IP计数合并进 {@link SpaceSaving}
+ * 得到的攻击IP排行（认证失败与黑名单命中，按分钟轮换）。
+ * 快照写入环形缓冲区并通过 {@link Sinks.Many} 广播，慢订阅者直接丢弃推送，不影响其他订阅者。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+public class SecurityMetricsStream implements DisposableBean {
+
+    private static final int HISTORY_SECONDS = 300;
+    private static final int TOP_IP_COUNTERS = 64;
+    private static final int TOP_IP_SIZE = 10;
+    private static final int TOP_IP_EPOCH_SECONDS = 60;
+
+    /**
+     * 每秒窗口最多单独计数的IP数，超出的新IP当秒不计入排行，高频IP早已在窗口中
+     */
+    private static final int MAX_OFFENDERS_PER_SECOND = 4096;
+
+    private final Snapshot[] history = new Snapshot[HISTORY_SECONDS];
+    private long sequence;
+
+    private final Sinks.Many<Snapshot> sink = Sinks.many().multicast().directBestEffort();
+
+    private volatile SecondWindow current = new SecondWindow(System.currentTimeMillis());
+    private SecondWindow retired;
+
+    /**
+     * 仅汇总线程访问
+     */
+    private SpaceSaving offenders = new SpaceSaving(TOP_IP_COUNTERS);
+    private int epochSeconds;
+
+    private ScheduledExecutorService tickExecutor;
+
+    @PostConstruct
+    public void init() {
+        tickExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "security-metrics-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tickExecutor.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 记录认证成功
+     */
+    public void recordAuthSuccess(long latencyNanos) {
+        SecondWindow window = current;
+        window.authSuccess.increment();
+        window.latency.record(latencyNanos);
+    }
+
+    /**
+     * 记录认证失败
+     */
+    public void recordAuthFailed(String clientIp, long latencyNanos) {
+        SecondWindow window = current;
+        window.authFailed.increment();
+        window.latency.record(latencyNanos);
+        window.offender(clientIp);
+    }
+
+    /**
+     * 记录黑名单命中
+     */
+    public void recordBlacklistHit(String clientIp, long latencyNanos) {
+        SecondWindow window = current;
+        window.blacklistHits.increment();
+        window.latency.record(latencyNanos);
+        window.offender(clientIp);
+    }
+
+    /**
+     * 订阅指标流：先回放最近的历史快照，再持续推送新快照
+     *
+     * @param historySeconds 回放的历史秒数
+     * @return 快照流
+     */
+    public Flux<Snapshot> stream(int historySeconds) {
+        return Flux.concat(Flux.defer(() -> Flux.fromIterable(recent(historySeconds))), sink.asFlux());
+    }
+
+    /**
+     * 最近若干秒的快照，按时间升序
+     */
+    public synchronized List<Snapshot> recent(int seconds) {
+        int count = (int) Math.min(Math.min(seconds, HISTORY_SECONDS), sequence);
+        List<Snapshot> snapshots = new ArrayList<>(Math.max(0, count));
+        for (long i = sequence - count; i < sequence; i++) {
+            snapshots.add(history[(int) (i % HISTORY_SECONDS)]);
+        }
+        return snapshots;
+    }
+
+    /**
+     * 每秒退役当前窗口，并汇总上一个退役窗口
+     */
+    private void tick() {
+        try {
+            SecondWindow toPublish = retired;
+            retired = current;
+            current = new SecondWindow(System.currentTimeMillis());
+
+            if (toPublish != null) {
+                toPublish.offenders.forEach((ip, count) -> offenders.offer(ip, count.sum()));
+            }
+            List<SpaceSaving.Item> topIps = offenders.top(TOP_IP_SIZE);
+            if (++epochSeconds >= TOP_IP_EPOCH_SECONDS) {
+                offenders = new SpaceSaving(TOP_IP_COUNTERS);
+                epochSeconds = 0;
+            }
+            if (toPublish == null) {
+                return;
+            }
+
+            Snapshot snapshot = new Snapshot(toPublish.startTime,
+                    toPublish.authSuccess.sum(), toPublish.authFailed.sum(), toPublish.blacklistHits.sum(),
+                    toPublish.latency.quantileMicros(0.99), topIps);
+            synchronized (this) {
+                history[(int) (sequence % HISTORY_SECONDS)] = snapshot;
+                sequence++;
+            }
+            sink.tryEmitNext(snapshot);
+        } catch (Exception e) {
+            log.error("安全指标汇总失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (tickExecutor != null) {
+            tickExecutor.shutdownNow();
+        }
+        sink.tryEmitComplete();
+    }
+
+    /**
+     * 一秒的计数窗口
+     */
+    private static final class SecondWindow {
+
+        private final long startTime;
+        private final LongAdder authSuccess = new LongAdder();
+        private final LongAdder authFailed = new LongAdder();
+        private final LongAdder blacklistHits = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final ConcurrentHashMap<String, LongAdder> offenders = new ConcurrentHashMap<>();
+
+        SecondWindow(long startTime) {
+            this.startTime = startTime;
+        }
+
+        void offender(String clientIp) {
+            if (clientIp == null) {
+                return;
+            }
+            LongAdder count = offenders.get(clientIp);
+            if (count == null) {
+                if (offenders.size() >= MAX_OFFENDERS_PER_SECOND) {
+                    return;
+                }
+                count = offenders.computeIfAbsent(clientIp, k -> new LongAdder());
+            }
+            count.increment();
+        }
+    }
+
+    /**
+     * 一秒的指标快照
+     *
+     * @param timestamp        窗口开始时间戳（毫秒）
+     * @param authSuccess      认证成功数
+     * @param authFailed       认证失败数
+     * @param blacklistHits    黑名单命中数
+     * @param authP99Micros    认证p99延迟（微秒）
+     * @param topOffendingIps  当前分钟内认证失败最多的IP
+     */
+    public record Snapshot(long timestamp, long authSuccess, long authFailed, long blacklistHits,
+                           long authP99Micros, List<SpaceSaving.Item> topOffendingIps) {
+
+    }
+}
@@ -1,30 +1,69 @@
 package com.tcyh.gateway.service;
 
-import lombok.RequiredArgsConstructor;
+import com.tcyh.gateway.config.StatsProperties;
+import com.tcyh.gateway.util.CountMinSketch;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.Redisson;
-import org.redisson.api.RAtomicLong;
-import org.redisson.api.RBucket;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.BatchOptions.ExecutionMode;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RMapAsync;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * 安全统计服务 - 基于Redisson
- * 
+ * 安全统计服务 - 本地聚合 + 批量刷入Redis
+ * <p>
+ * 请求线程只在本地 {@link LongAdder} 与 {@link CountMinSketch} 计数，不访问Redis；后台线程按固定间隔把计数增量
+ * 通过一次流水线 {@link RBatch} 累加到Redis，多个网关实例的增量在Redis中汇总，统计结果与逐条写入一致。
+ * <ul>
+ *     <li>总数按分钟、小时、日三个粒度写入时即完成汇总，各粒度键均带过期时间；</li>
+ *     <li>IP/用户维度不再每个实体一个键，而是每个统计项每天一个 Count-Min 哈希（频率估计，字段数固定为 depth × width）
+ *     与一个 HyperLogLog（去重计数，固定约12KB），Redis内存与IP/用户数量无关。</li>
+ * </ul>
+ * 每个键每天只设置一次过期时间，批次执行成功后才记为已设置。启动时清理旧版按实体计数的键，并为缺少过期时间的旧键补齐过期时间。
+ * <p>
+ * 计数窗口采用双缓冲：刷入时当前窗口先退役一个周期再写入Redis，保证退役前已取得窗口引用的写入不会丢失。
+ * 批次以 {@link ExecutionMode#IN_MEMORY_ATOMIC}（MULTI/EXEC）执行，失败时没有任何命令生效，
+ * 此时把该窗口的增量合并回当前窗口随后续刷入重试，Redis短暂不可用既不会丢失计数，也不会重复累加。
+ *
  * @author fp
  * @since 2025-09-17
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class SecurityStatsService {
+@EnableConfigurationProperties(StatsProperties.class)
+public class SecurityStatsService implements DisposableBean {
 
-    private final RedissonClient redissonClient;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm");
+
+    private static final CompositeCodec SKETCH_CODEC = new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE);
+    private static final int SCAN_COUNT = 1000;
 
     // 统计键前缀
     private static final String STATS_PREFIX = "security:stats:";
@@ -33,191 +72,483 @@ public class SecurityStatsService {
     private static final String TOKEN_VALIDATE_PREFIX = "token:validate:";
     private static final String BLACKLIST_HIT_PREFIX = "blacklist:hit:";
 
-    /**
-     * 记录登录成功
-     */
-    public Mono<Void> recordLoginSuccess(String username, String clientIp) {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        String hour = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
+    // 各统计项的键前缀，按时间粒度/维度摘要的键在此基础上拼接
+    private static final String LOGIN_SUCCESS = STATS_PREFIX + LOGIN_SUCCESS_PREFIX;
+    private static final String LOGIN_FAILED = STATS_PREFIX + LOGIN_FAILED_PREFIX;
+    private static final String TOKEN_VALIDATE_SUCCESS = STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "success:";
+    private static final String TOKEN_VALIDATE_FAILED = STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "failed:";
+    private static final String BLACKLIST_HIT = STATS_PREFIX + BLACKLIST_HIT_PREFIX;
+    private static final String[] STATS = {
+            LOGIN_SUCCESS, LOGIN_FAILED, TOKEN_VALIDATE_SUCCESS, TOKEN_VALIDATE_FAILED, BLACKLIST_HIT
+    };
+
+    // 维度
+    private static final String IP = "ip:";
+    private static final String USER = "user:";
+
+    // 维度摘要键类型，摘要键为 统计项前缀 + 类型 + 维度 + 日期
+    private static final String SKETCH = "cms:";
+    private static final String DISTINCT = "hll:";
+
+    private static final Dimension LOGIN_SUCCESS_USER = new Dimension(LOGIN_SUCCESS, USER);
+    private static final Dimension LOGIN_SUCCESS_IP = new Dimension(LOGIN_SUCCESS, IP);
+    private static final Dimension LOGIN_FAILED_USER = new Dimension(LOGIN_FAILED, USER);
+    private static final Dimension LOGIN_FAILED_IP = new Dimension(LOGIN_FAILED, IP);
+    private static final Dimension TOKEN_VALIDATE_SUCCESS_USER = new Dimension(TOKEN_VALIDATE_SUCCESS, USER);
+    private static final Dimension TOKEN_VALIDATE_SUCCESS_IP = new Dimension(TOKEN_VALIDATE_SUCCESS, IP);
+    private static final Dimension TOKEN_VALIDATE_FAILED_IP = new Dimension(TOKEN_VALIDATE_FAILED, IP);
+    private static final Dimension BLACKLIST_HIT_IP = new Dimension(BLACKLIST_HIT, IP);
 
-        return Mono.fromRunnable(() -> {
-            // 按日期统计
-            RAtomicLong dateCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_SUCCESS_PREFIX + date);
-            dateCounter.incrementAndGet();
+    private final RedissonClient redissonClient;
+    private final RedissonReactiveClient redissonReactiveClient;
+    private final StatsProperties properties;
 
-            // 按小时统计
-            RAtomicLong hourCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_SUCCESS_PREFIX + hour);
-            hourCounter.incrementAndGet();
+    /**
+     * 当前接收写入的计数窗口
+     */
+    private volatile CounterWindow current;
 
-            // 按用户统计
-            RAtomicLong userCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_SUCCESS_PREFIX + "user:" + username);
-            userCounter.incrementAndGet();
+    /**
+     * 已退役、等待下次刷入的计数窗口，仅刷入线程访问
+     */
+    private CounterWindow retired;
 
-            // 按IP统计
-            RAtomicLong ipCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_SUCCESS_PREFIX + "ip:" + clientIp);
-            ipCounter.incrementAndGet();
+    /**
+     * 当天已设置过期时间的键，仅刷入线程访问
+     */
+    private final Set<String> ttlAppliedKeys = new HashSet<>();
+    private String ttlAppliedDate;
+
+    private ScheduledExecutorService flushExecutor;
+
+    public SecurityStatsService(RedissonClient redissonClient, RedissonReactiveClient redissonReactiveClient,
+                                StatsProperties properties) {
+        this.redissonClient = redissonClient;
+        this.redissonReactiveClient = redissonReactiveClient;
+        this.properties = properties;
+        this.current = newWindow();
+        this.retired = newWindow();
+    }
 
-            log.debug("记录登录成功统计: username={}, ip={}", username, clientIp);
+    @PostConstruct
+    public void init() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "security-stats-flusher");
+            thread.setDaemon(true);
+            return thread;
         });
+        if (Boolean.TRUE.equals(properties.compactOnStartup())) {
+            flushExecutor.execute(this::compact);
+        }
+        long intervalMillis = properties.flushInterval().toMillis();
+        flushExecutor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * 记录登录失败
+     * 记录登录成功
      */
-    public Mono<Void> recordLoginFailed(String username, String clientIp, String reason) {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        String hour = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
-
-        return Mono.fromRunnable(() -> {
-            // 按日期统计
-            RAtomicLong dateCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_FAILED_PREFIX + date);
-            dateCounter.incrementAndGet();
+    public void recordLoginSuccess(String username, String clientIp) {
+        CounterWindow window = current;
+        window.total(LOGIN_SUCCESS);
+        window.dimension(LOGIN_SUCCESS_USER, username);
+        window.dimension(LOGIN_SUCCESS_IP, clientIp);
+        log.debug("记录登录成功统计: username={}, ip={}", username, clientIp);
+    }
 
-            // 按小时统计
-            RAtomicLong hourCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_FAILED_PREFIX + hour);
-            hourCounter.incrementAndGet();
+    /**
+     * 记录登录失败
+     */
+    public void recordLoginFailed(String username, String clientIp, String reason) {
+        CounterWindow window = current;
+        window.total(LOGIN_FAILED);
+        window.dimension(LOGIN_FAILED_USER, username);
+        window.dimension(LOGIN_FAILED_IP, clientIp);
+        log.warn("记录登录失败统计: username={}, ip={}, reason={}", username, clientIp, reason);
+    }
 
-            // 按用户统计
-            RAtomicLong userCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_FAILED_PREFIX + "user:" + username);
-            userCounter.incrementAndGet();
+    /**
+     * 记录Token验证成功
+     */
+    public void recordTokenValidateSuccess(String username, String clientIp) {
+        CounterWindow window = current;
+        window.total(TOKEN_VALIDATE_SUCCESS);
+        window.dimension(TOKEN_VALIDATE_SUCCESS_USER, username);
+        window.dimension(TOKEN_VALIDATE_SUCCESS_IP, clientIp);
+        log.debug("记录Token验证成功统计: username={}, ip={}", username, clientIp);
+    }
 
-            // 按IP统计
-            RAtomicLong ipCounter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_FAILED_PREFIX + "ip:" + clientIp);
-            ipCounter.incrementAndGet();
+    /**
+     * 记录Token验证失败
+     */
+    public void recordTokenValidateFailed(String token, String clientIp, String reason) {
+        CounterWindow window = current;
+        window.total(TOKEN_VALIDATE_FAILED);
+        window.dimension(TOKEN_VALIDATE_FAILED_IP, clientIp);
+        log.warn("记录Token验证失败统计: token={}, ip={}, reason={}",
+                token.substring(0, Math.min(20, token.length())) + "...", clientIp, reason);
+    }
 
-            log.warn("记录登录失败统计: username={}, ip={}, reason={}", username, clientIp, reason);
-        });
+    /**
+     * 记录黑名单命中
+     */
+    public void recordBlacklistHit(String token, String clientIp) {
+        CounterWindow window = current;
+        window.total(BLACKLIST_HIT);
+        window.dimension(BLACKLIST_HIT_IP, clientIp);
+        log.warn("记录黑名单命中统计: token={}, ip={}",
+                token.substring(0, Math.min(20, token.length())) + "...", clientIp);
     }
 
     /**
-     * 记录Token验证成功
+     * 获取今日登录成功次数
      */
-    public Mono<Void> recordTokenValidateSuccess(String username, String clientIp) {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        String hour = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
+    public Mono<Long> getTodayLoginSuccessCount() {
+        return getTodayCount(LOGIN_SUCCESS);
+    }
 
-        return Mono.fromRunnable(() -> {
-            // 按日期统计
-            RAtomicLong dateCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "success:" + date);
-            dateCounter.incrementAndGet();
+    /**
+     * 获取今日登录失败次数
+     */
+    public Mono<Long> getTodayLoginFailedCount() {
+        return getTodayCount(LOGIN_FAILED);
+    }
 
-            // 按小时统计
-            RAtomicLong hourCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "success:" + hour);
-            hourCounter.incrementAndGet();
+    /**
+     * 获取今日Token验证成功次数
+     */
+    public Mono<Long> getTodayTokenValidateSuccessCount() {
+        return getTodayCount(TOKEN_VALIDATE_SUCCESS);
+    }
 
-            // 按用户统计
-            RAtomicLong userCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "success:user:" + username);
-            userCounter.incrementAndGet();
+    /**
+     * 获取今日Token验证失败次数
+     */
+    public Mono<Long> getTodayTokenValidateFailedCount() {
+        return getTodayCount(TOKEN_VALIDATE_FAILED);
+    }
 
-            // 按IP统计
-            RAtomicLong ipCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "success:ip:" + clientIp);
-            ipCounter.incrementAndGet();
+    /**
+     * 估计某IP今日的Token验证失败次数（Count-Min，可能略微高估）
+     */
+    public Mono<Long> estimateTodayTokenValidateFailedByIp(String clientIp) {
+        return estimateTodayCount(TOKEN_VALIDATE_FAILED_IP, clientIp);
+    }
 
-            log.debug("记录Token验证成功统计: username={}, ip={}", username, clientIp);
-        });
+    /**
+     * 估计某用户今日的登录失败次数（Count-Min，可能略微高估）
+     */
+    public Mono<Long> estimateTodayLoginFailedByUser(String username) {
+        return estimateTodayCount(LOGIN_FAILED_USER, username);
     }
 
     /**
-     * 记录Token验证失败
+     * 估计今日Token验证失败的不同IP数（HyperLogLog，标准误差约0.81%）
      */
-    public Mono<Void> recordTokenValidateFailed(String token, String clientIp, String reason) {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        String hour = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
+    public Mono<Long> estimateTodayTokenValidateFailedIps() {
+        String date = LocalDateTime.now().format(DATE_FORMATTER);
+        return redissonReactiveClient.<String>getHyperLogLog(TOKEN_VALIDATE_FAILED_IP.key(DISTINCT, date),
+                StringCodec.INSTANCE).count();
+    }
 
-        return Mono.fromRunnable(() -> {
-            // 按日期统计
-            RAtomicLong dateCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "failed:" + date);
-            dateCounter.incrementAndGet();
+    private Mono<Long> getTodayCount(String prefix) {
+        String date = LocalDateTime.now().format(DATE_FORMATTER);
+        return redissonReactiveClient.getAtomicLong(prefix + date).get();
+    }
 
-            // 按小时统计
-            RAtomicLong hourCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "failed:" + hour);
-            hourCounter.incrementAndGet();
+    private Mono<Long> estimateTodayCount(Dimension dimension, String value) {
+        String date = LocalDateTime.now().format(DATE_FORMATTER);
+        int depth = properties.sketchDepth();
+        int[] columns = CountMinSketch.columns(value, depth, properties.sketchWidth());
+        Set<String> fields = new LinkedHashSet<>();
+        for (int row = 0; row < depth; row++) {
+            fields.add(row + ":" + columns[row]);
+        }
+        return redissonReactiveClient.<String, Long>getMap(dimension.key(SKETCH, date), SKETCH_CODEC)
+                .getAll(fields)
+                .map(counts -> {
+                    long min = Long.MAX_VALUE;
+                    for (String field : fields) {
+                        min = Math.min(min, counts.getOrDefault(field, 0L));
+                    }
+                    return min;
+                });
+    }
 
-            // 按IP统计
-            RAtomicLong ipCounter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "failed:ip:" + clientIp);
-            ipCounter.incrementAndGet();
+    /**
+     * 将退役窗口的计数增量批量刷入Redis，并退役当前窗口
+     */
+    private synchronized void flush() {
+        CounterWindow toFlush = retired;
+        retired = current;
+        current = newWindow();
+        if (toFlush.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String date = now.format(DATE_FORMATTER);
+        String hour = now.format(HOUR_FORMATTER);
+        String minute = now.format(MINUTE_FORMATTER);
+        if (!date.equals(ttlAppliedDate)) {
+            ttlAppliedKeys.clear();
+            ttlAppliedDate = date;
+        }
+
+        List<String> ttlPending = new ArrayList<>();
+        try {
+            // 原子批次：全部成功或全部不生效，失败后合并重试不会重复累加
+            RBatch batch = redissonClient.createBatch(BatchOptions.defaults()
+                    .executionMode(ExecutionMode.IN_MEMORY_ATOMIC));
+            for (Map.Entry<String, LongAdder> entry : toFlush.totals.entrySet()) {
+                long delta = entry.getValue().sum();
+                if (delta == 0) {
+                    continue;
+                }
+                increment(batch, ttlPending, entry.getKey() + date, delta, properties.dateTtl());
+                increment(batch, ttlPending, entry.getKey() + hour, delta, properties.hourTtl());
+                increment(batch, ttlPending, entry.getKey() + minute, delta, properties.minuteTtl());
+            }
+            for (Map.Entry<Dimension, CountMinSketch> entry : toFlush.sketches.entrySet()) {
+                flushSketch(batch, ttlPending, entry.getKey().key(SKETCH, date), entry.getValue());
+            }
+            for (Map.Entry<Dimension, Set<String>> entry : toFlush.distinct.entrySet()) {
+                String key = entry.getKey().key(DISTINCT, date);
+                batch.<String>getHyperLogLog(key, StringCodec.INSTANCE).addAllAsync(entry.getValue());
+                applyTtl(batch, ttlPending, key, properties.dimensionTtl());
+            }
+            batch.execute();
+            ttlAppliedKeys.addAll(ttlPending);
+        } catch (Exception e) {
+            log.error("安全统计刷入Redis失败，增量留待下次刷入: {}", e.getMessage());
+            current.merge(toFlush);
+        }
+    }
 
-            log.warn("记录Token验证失败统计: token={}, ip={}, reason={}",
-                    token.substring(0, Math.min(20, token.length())) + "...", clientIp, reason);
-        });
+    private void increment(RBatch batch, List<String> ttlPending, String key, long delta, Duration ttl) {
+        batch.getAtomicLong(key).addAndGetAsync(delta);
+        applyTtl(batch, ttlPending, key, ttl);
     }
 
     /**
-     * 记录黑名单命中
+     * 把本地 Count-Min 的非零计数器以 HINCRBY 累加到Redis哈希，字段为 "行:列"
      */
-    public Mono<Void> recordBlacklistHit(String token, String clientIp) {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        String hour = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH"));
+    private void flushSketch(RBatch batch, List<String> ttlPending, String key, CountMinSketch sketch) {
+        RMapAsync<String, Long> map = batch.getMap(key, SKETCH_CODEC);
+        boolean written = false;
+        for (int row = 0; row < sketch.getDepth(); row++) {
+            for (int column = 0; column < sketch.getWidth(); column++) {
+                long count = sketch.get(row, column);
+                if (count != 0) {
+                    map.addAndGetAsync(row + ":" + column, count);
+                    written = true;
+                }
+            }
+        }
+        if (written) {
+            applyTtl(batch, ttlPending, key, properties.dimensionTtl());
+        }
+    }
 
-        return Mono.fromRunnable(() -> {
-            // 按日期统计
-            RAtomicLong dateCounter = redissonClient.getAtomicLong(STATS_PREFIX + BLACKLIST_HIT_PREFIX + date);
-            dateCounter.incrementAndGet();
+    /**
+     * 当天未设置过期时间的键在本批次中设置，批次成功后才记入 ttlAppliedKeys
+     */
+    private void applyTtl(RBatch batch, List<String> ttlPending, String key, Duration ttl) {
+        if (!ttlAppliedKeys.contains(key)) {
+            batch.getBucket(key).expireAsync(ttl);
+            ttlPending.add(key);
+        }
+    }
 
-            // 按小时统计
-            RAtomicLong hourCounter = redissonClient.getAtomicLong(STATS_PREFIX + BLACKLIST_HIT_PREFIX + hour);
-            hourCounter.incrementAndGet();
+    /**
+     * 清理旧版按实体计数的键（security:stats:*:user:&lt;name&gt; / *:ip:&lt;ip&gt;），并为缺少过期时间的键补齐过期时间
+     */
+    private void compact() {
+        long deleted = 0;
+        long expired = 0;
+        try {
+            List<String> chunk = new ArrayList<>(SCAN_COUNT);
+            for (String key : redissonClient.getKeys().getKeysByPattern(STATS_PREFIX + "*", SCAN_COUNT)) {
+                chunk.add(key);
+                if (chunk.size() == SCAN_COUNT) {
+                    long[] result = compactChunk(chunk);
+                    deleted += result[0];
+                    expired += result[1];
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                long[] result = compactChunk(chunk);
+                deleted += result[0];
+                expired += result[1];
+            }
+            log.info("安全统计键整理完成: 删除旧版实体键={}, 补齐过期时间={}", deleted, expired);
+        } catch (Exception e) {
+            log.error("安全统计键整理失败: {}", e.getMessage());
+        }
+    }
 
-            // 按IP统计
-            RAtomicLong ipCounter = redissonClient.getAtomicLong(STATS_PREFIX + BLACKLIST_HIT_PREFIX + "ip:" + clientIp);
-            ipCounter.incrementAndGet();
+    private long[] compactChunk(List<String> keys) {
+        List<String> legacy = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        for (String key : keys) {
+            (isLegacyEntityKey(key) ? legacy : others).add(key);
+        }
+
+        RBatch ttlBatch = redissonClient.createBatch();
+        List<RFuture<Long>> ttls = new ArrayList<>(others.size());
+        for (String key : others) {
+            ttls.add(ttlBatch.getBucket(key).remainTimeToLiveAsync());
+        }
+        ttlBatch.execute();
+
+        RBatch batch = redissonClient.createBatch();
+        long expired = 0;
+        for (int i = 0; i < others.size(); i++) {
+            // -1 表示键存在但没有过期时间
+            if (ttls.get(i).toCompletableFuture().join() == -1) {
+                batch.getBucket(others.get(i)).expireAsync(ttlOf(others.get(i)));
+                expired++;
+            }
+        }
+        if (!legacy.isEmpty()) {
+            batch.getKeys().unlinkAsync(legacy.toArray(new String[0]));
+        }
+        batch.execute();
+        return new long[]{legacy.size(), expired};
+    }
 
-            log.warn("记录黑名单命中统计: token={}, ip={}",
-                    token.substring(0, Math.min(20, token.length())) + "...", clientIp);
-        });
+    private static boolean isLegacyEntityKey(String key) {
+        String suffix = suffixOf(key);
+        return suffix != null && (suffix.startsWith(USER) || suffix.startsWith(IP));
     }
 
     /**
-     * 获取今日登录成功次数
+     * 按键的时间粒度确定过期时间
      */
-    public Mono<Long> getTodayLoginSuccessCount() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        return Mono.fromCallable(() -> {
-            RAtomicLong counter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_SUCCESS_PREFIX + date);
-            return counter.get();
-        });
+    private Duration ttlOf(String key) {
+        String suffix = suffixOf(key);
+        int length = suffix != null ? suffix.length() : 0;
+        if (length == "yyyy-MM-dd-HH-mm".length()) {
+            return properties.minuteTtl();
+        }
+        if (length == "yyyy-MM-dd-HH".length()) {
+            return properties.hourTtl();
+        }
+        if (length == "yyyy-MM-dd".length()) {
+            return properties.dateTtl();
+        }
+        return properties.dimensionTtl();
     }
 
     /**
-     * 获取今日登录失败次数
+     * 去掉统计项前缀后的部分，不属于任何统计项时返回 null
      */
-    public Mono<Long> getTodayLoginFailedCount() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        return Mono.fromCallable(() -> {
-            RAtomicLong counter = redissonClient.getAtomicLong(STATS_PREFIX + LOGIN_FAILED_PREFIX + date);
-            return counter.get();
-        });
+    private static String suffixOf(String key) {
+        for (String stat : STATS) {
+            if (key.startsWith(stat)) {
+                return key.substring(stat.length());
+            }
+        }
+        return null;
     }
 
-    /**
-     * 获取今日Token验证成功次数
-     */
-    public Mono<Long> getTodayTokenValidateSuccessCount() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        return Mono.fromCallable(() -> {
-            RAtomicLong counter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "success:" + date);
-            return counter.get();
-        });
+    private CounterWindow newWindow() {
+        return new CounterWindow(properties.sketchDepth(), properties.sketchWidth(), properties.maxDistinctPerFlush());
+    }
+
+    @Override
+    public void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+        // 刷出退役窗口与当前窗口
+        flush();
+        flush();
     }
 
     /**
-     * 获取今日Token验证失败次数
+     * 计数窗口：按统计项汇总的计数，以及按维度的 Count-Min 计数与去重集合
+     * <p>
+     * 内存上界：每个维度一个固定大小的 Count-Min，去重集合最多 maxDistinct 个值（超出部分不计入HyperLogLog）。
      */
-    public Mono<Long> getTodayTokenValidateFailedCount() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        return Mono.fromCallable(() -> {
-            RAtomicLong counter = redissonClient.getAtomicLong(STATS_PREFIX + TOKEN_VALIDATE_PREFIX + "failed:" + date);
-            return counter.get();
-        });
+    static final class CounterWindow {
+
+        private final int sketchDepth;
+        private final int sketchWidth;
+        private final int maxDistinct;
+        private final ConcurrentHashMap<String, LongAdder> totals = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Dimension, CountMinSketch> sketches = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Dimension, Set<String>> distinct = new ConcurrentHashMap<>();
+
+        CounterWindow(int sketchDepth, int sketchWidth, int maxDistinct) {
+            this.sketchDepth = sketchDepth;
+            this.sketchWidth = sketchWidth;
+            this.maxDistinct = maxDistinct;
+        }
+
+        void total(String prefix) {
+            LongAdder adder = totals.get(prefix);
+            if (adder == null) {
+                adder = totals.computeIfAbsent(prefix, k -> new LongAdder());
+            }
+            adder.increment();
+        }
+
+        void dimension(Dimension dimension, String value) {
+            if (value == null) {
+                return;
+            }
+            CountMinSketch sketch = sketches.get(dimension);
+            if (sketch == null) {
+                sketch = sketches.computeIfAbsent(dimension, k -> new CountMinSketch(sketchDepth, sketchWidth));
+            }
+            sketch.add(value, 1);
+
+            Set<String> values = distinct.get(dimension);
+            if (values == null) {
+                values = distinct.computeIfAbsent(dimension, k -> ConcurrentHashMap.newKeySet());
+            }
+            if (values.size() < maxDistinct) {
+                values.add(value);
+            }
+        }
+
+        boolean isEmpty() {
+            return totals.isEmpty();
+        }
+
+        /**
+         * 合并另一窗口的计数，用于刷入失败后重试，去重集合同样受 maxDistinct 限制
+         */
+        void merge(CounterWindow other) {
+            other.totals.forEach((prefix, adder) -> {
+                long delta = adder.sum();
+                if (delta != 0) {
+                    totals.computeIfAbsent(prefix, k -> new LongAdder()).add(delta);
+                }
+            });
+            other.sketches.forEach((dimension, sketch) -> sketches
+                    .computeIfAbsent(dimension, k -> new CountMinSketch(sketchDepth, sketchWidth))
+                    .merge(sketch));
+            other.distinct.forEach((dimension, otherValues) -> {
+                Set<String> values = distinct.computeIfAbsent(dimension, k -> ConcurrentHashMap.newKeySet());
+                for (String value : otherValues) {
+                    if (values.size() >= maxDistinct) {
+                        break;
+                    }
+                    values.add(value);
+                }
+            });
+        }
     }
 
     /**
-     * 设置统计数据的过期时间
+     * 统计维度：统计项前缀 + 维度名
      */
-    public Mono<Void> setStatsExpiration(String key, Duration duration) {
-        return Mono.fromRunnable(() -> {
-            RBucket<Object> bucket = redissonClient.getBucket(key);
-            bucket.expire(duration);
-        });
+    private record Dimension(String stat, String name) {
+
+        String key(String type, String date) {
+            return stat + type + name + date;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package com.tcyh.gateway.service;
+
+import com.tcyh.common.constant.CacheConsts;
+import com.tcyh.gateway.config.BlacklistProperties;
+import com.tcyh.gateway.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token黑名单服务 - 本地布隆过滤器 + Redis确认
+ * <p>
+ * 网关本地维护黑名单token的布隆过滤器，通过Redisson {@link RTopic} 接收用户服务登出时发布的拉黑通知，
+ * 并定期从Redis全量重建（清理过期条目、补偿断线期间丢失的通知）。
+ * 布隆过滤器未命中时直接判定不在黑名单中，只有命中时才回源Redis确认，热路径上省去一次网络往返。
+ * 初次同步完成前，所有token都回源Redis检查。回源使用响应式客户端，不阻塞事件循环；
+ * 订阅与全量重建运行在独立线程上，使用同步客户端。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(BlacklistProperties.class)
+public class TokenBlacklistService implements DisposableBean {
+
+    private static final int SCAN_COUNT = 1000;
+
+    private final RedissonClient redissonClient;
+    private final RedissonReactiveClient redissonReactiveClient;
+    private final TokenCacheService tokenCacheService;
+    private final BlacklistProperties properties;
+
+    /**
+     * 当前生效的布隆过滤器
+     */
+    private volatile BloomFilter current;
+
+    /**
+     * 重建中的布隆过滤器，重建期间收到的通知同时写入
+     */
+    private volatile BloomFilter rebuilding;
+
+    /**
+     * 是否已完成至少一次全量同步
+     */
+    private volatile boolean ready;
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    public TokenBlacklistService(RedissonClient redissonClient, RedissonReactiveClient redissonReactiveClient,
+                                 TokenCacheService tokenCacheService, BlacklistProperties properties) {
+        this.redissonClient = redissonClient;
+        this.redissonReactiveClient = redissonReactiveClient;
+        this.tokenCacheService = tokenCacheService;
+        this.properties = properties;
+        this.current = newFilter();
+    }
+
+    @PostConstruct
+    public void init() {
+        RTopic topic = redissonClient.getTopic(CacheConsts.TOKEN_BLACKLIST_TOPIC, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, token) -> onBlacklisted(token));
+
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-blacklist-rebuilder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.rebuildInterval().toMillis();
+        rebuildExecutor.scheduleWithFixedDelay(this::rebuild, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 判断token是否在黑名单中
+     *
+     * @param token JWT token
+     * @return 是否在黑名单中
+     */
+    public Mono<Boolean> isBlacklisted(String token) {
+        if (ready && !current.mightContain(token)) {
+            return Mono.just(false);
+        }
+        return redissonReactiveClient.getBucket(CacheConsts.TOKEN_BLACKLIST_PREFIX + token).isExists();
+    }
+
+    /**
+     * 处理拉黑通知
+     * <p>
+     * 先写入重建中的过滤器再写入当前过滤器，最后确认当前过滤器未被换掉：
+     * 读到 rebuilding 为空时重建可能刚刚完成，新过滤器已换入 current，由复查补写，通知不会丢失。
+     */
+    private void onBlacklisted(String token) {
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(token);
+        }
+        BloomFilter filter = current;
+        filter.put(token);
+        while (filter != current) {
+            filter = current;
+            filter.put(token);
+        }
+        tokenCacheService.invalidate(token);
+        log.debug("收到Token拉黑通知: {}", token.substring(0, Math.min(20, token.length())) + "...");
+    }
+
+    /**
+     * 从Redis全量重建布隆过滤器
+     */
+    private synchronized void rebuild() {
+        BloomFilter fresh = newFilter();
+        rebuilding = fresh;
+        try {
+            int count = 0;
+            int prefixLength = CacheConsts.TOKEN_BLACKLIST_PREFIX.length();
+            for (String key : redissonClient.getKeys()
+                    .getKeysByPattern(CacheConsts.TOKEN_BLACKLIST_PREFIX + "*", SCAN_COUNT)) {
+                fresh.put(key.substring(prefixLength));
+                count++;
+            }
+            current = fresh;
+            ready = true;
+            log.info("Token黑名单布隆过滤器重建完成: size={}", count);
+        } catch (Exception e) {
+            log.error("Token黑名单布隆过滤器重建失败: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(properties.expectedInsertions(), properties.fpp());
+    }
+
+    @Override
+    public void destroy() {
+        if (rebuildExecutor != null) {
+            rebuildExecutor.shutdownNow();
+        }
+    }
+}
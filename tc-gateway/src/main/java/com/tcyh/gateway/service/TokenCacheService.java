@@ -0,0 +1,122 @@
+package com.tcyh.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tcyh.gateway.config.TokenCacheProperties;
+import com.tcyh.gateway.util.JwtUtil;
+import com.tcyh.gateway.util.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签Token缓存服务
+ * <p>
+ * 以token的SHA-256摘要为键缓存验签结果，条目在 min(token过期时间, ttl) 后失效，
+ * 避免同一token在有效期内反复进行RS256验签。只缓存验签成功的结果。
+ * 黑名单检查始终先于缓存查询执行，登出的token命中黑名单时同时清除缓存条目。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(TokenCacheProperties.class)
+public class TokenCacheService {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final boolean enabled;
+    private final Cache<String, VerifiedToken> cache;
+
+    public TokenCacheService(JwtUtil jwtUtil, TokenCacheProperties properties, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.enabled = Boolean.TRUE.equals(properties.enabled());
+        long ttlNanos = properties.ttl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfter(new TokenExpiry(ttlNanos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.token.cache");
+        log.info("Token验签缓存配置完成: enabled={}, maxSize={}, ttl={}",
+                enabled, properties.maxSize(), properties.ttl());
+    }
+
+    /**
+     * 验签token，优先读取缓存
+     *
+     * @param token JWT token
+     * @return 验证结果，token无效或已过期时返回 null
+     */
+    public VerifiedToken verify(String token) {
+        if (!enabled) {
+            return jwtUtil.verify(token);
+        }
+        String key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        VerifiedToken verifiedToken = jwtUtil.verify(token);
+        if (verifiedToken != null) {
+            cache.put(key, verifiedToken);
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * 清除token的缓存条目，用于登出/拉黑后保证撤销立即生效
+     *
+     * @param token JWT token
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    /**
+     * 按 min(token剩余有效期, ttl) 计算条目过期时间
+     */
+    private record TokenExpiry(long ttlNanos) implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.getExpiration() == null) {
+                return ttlNanos;
+            }
+            long remainingMillis = value.getExpiration().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0, Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
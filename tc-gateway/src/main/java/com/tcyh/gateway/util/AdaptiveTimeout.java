@@ -0,0 +1,72 @@
+package com.tcyh.gateway.util;
+
+/**
+ * 延迟自适应超时 - 参照TCP重传超时（RFC 6298）的计算方式
+ * <p>
+ * 以指数加权平均维护平滑延迟 srtt 与延迟偏差 rttvar，超时时间 = srtt + 4 × rttvar，
+ * 并限制在 [min, max] 之间。上游变慢时超时随之放宽，偶发长尾不会立即触发超时；
+ * 上游持续稳定时超时收紧，尽早释放卡住的连接。
+ * <p>
+ * 超时的请求得不到延迟样本，按 RFC 6298 第5.5节在每次超时后把超时时间加倍（不超过上限），
+ * 上游突然变慢时超时随之回退放宽，不会一直按旧延迟超时；下一个延迟样本到来时恢复按样本计算。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class AdaptiveTimeout {
+
+    private static final double ALPHA = 0.125;
+    private static final double BETA = 0.25;
+    private static final int K = 4;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    private final long minMillis;
+    private final long maxMillis;
+
+    private double srtt = -1;
+    private double rttvar;
+    private int backoffShift;
+
+    /**
+     * @param minMillis 超时下限（毫秒）
+     * @param maxMillis 超时上限（毫秒），没有延迟样本时使用
+     */
+    public AdaptiveTimeout(long minMillis, long maxMillis) {
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * 记录一次成功请求的延迟
+     */
+    public synchronized void record(long latencyMillis) {
+        if (srtt < 0) {
+            srtt = latencyMillis;
+            rttvar = latencyMillis / 2.0;
+        } else {
+            rttvar = (1 - BETA) * rttvar + BETA * Math.abs(srtt - latencyMillis);
+            srtt = (1 - ALPHA) * srtt + ALPHA * latencyMillis;
+        }
+        backoffShift = 0;
+    }
+
+    /**
+     * 记录一次超时，超时时间加倍直到下一个延迟样本或达到上限
+     */
+    public synchronized void backoff() {
+        if (backoffShift < MAX_BACKOFF_SHIFT && currentMillis() < maxMillis) {
+            backoffShift++;
+        }
+    }
+
+    /**
+     * 当前超时时间（毫秒）
+     */
+    public synchronized long currentMillis() {
+        if (srtt < 0) {
+            return maxMillis;
+        }
+        long timeout = Math.max(minMillis, (long) Math.ceil(srtt + K * rttvar)) << backoffShift;
+        return Math.min(maxMillis, timeout);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tcyh.gateway.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的字符串布隆过滤器
+ * <p>
+ * 只会误报（mightContain 为 true 但实际不存在），不会漏报；不支持删除，需要整体重建。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    /**
+     * @param expectedInsertions 预计元素数量
+     * @param fpp                期望误判率
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((m + 63) >>> 6));
+        this.bitSize = (long) bits.length() << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    /**
+     * 添加元素
+     */
+    public void put(String value) {
+        long hash1 = Hashing.fnv1a64(value);
+        long hash2 = Hashing.mix64(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long old;
+            do {
+                old = bits.get(word);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    /**
+     * 元素是否可能存在
+     */
+    public boolean mightContain(String value) {
+        long hash1 = Hashing.fnv1a64(value);
+        long hash2 = Hashing.mix64(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.tcyh.gateway.util;
+
+import com.tcyh.gateway.config.ClientIpProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 客户端IP解析 - 只信任可信代理追加的转发头
+ * <p>
+ * X-Forwarded-For 的每一跳由上一跳代理追加在末尾，最左侧的值完全由客户端决定。
+ * 因此从连接对端开始自右向左解析：对端不是可信代理时直接使用对端地址；
+ * 否则沿 X-Forwarded-For 向左跳过可信代理，第一个非可信地址即为客户端IP。
+ * X-Real-IP 只在对端为可信代理且没有 X-Forwarded-For 时使用。
+ * 转发头中不是IP字面量的值（如 unknown）视为不可信，此时取最后一个可信跳的地址。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Component
+@EnableConfigurationProperties(ClientIpProperties.class)
+public class ClientIpResolver {
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String X_REAL_IP = "X-Real-IP";
+    private static final String UNKNOWN = "unknown";
+
+    private static final Pattern IPV4 = Pattern.compile("(\\d{1,3}\\.){3}\\d{1,3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]{2,45}");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(ClientIpProperties properties) {
+        this.trustedProxies = properties.trustedProxies().stream()
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * 解析客户端IP
+     *
+     * @param request 当前请求
+     * @return 客户端IP，无法获取连接地址时返回 unknown
+     */
+    public String resolve(ServerHttpRequest request) {
+        String remote = remoteAddress(request);
+        if (trustedProxies.isEmpty() || !isTrusted(remote)) {
+            return remote;
+        }
+
+        List<String> hops = forwardedHops(request);
+        if (hops.isEmpty()) {
+            String realIp = request.getHeaders().getFirst(X_REAL_IP);
+            return realIp != null && isIpLiteral(realIp.trim()) ? realIp.trim() : remote;
+        }
+        String client = remote;
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            String hop = hops.get(i);
+            if (!isIpLiteral(hop)) {
+                return client;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        // 整条链都是可信代理，取最左侧
+        return client;
+    }
+
+    /**
+     * 连接对端地址，不读取任何请求头
+     *
+     * @param request 当前请求
+     * @return 对端IP，无法获取时返回 unknown
+     */
+    public static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : UNKNOWN;
+    }
+
+    /**
+     * 所有 X-Forwarded-For 头按出现顺序展开为各跳地址
+     */
+    private static List<String> forwardedHops(ServerHttpRequest request) {
+        List<String> headers = request.getHeaders().get(X_FORWARDED_FOR);
+        if (headers == null) {
+            return List.of();
+        }
+        List<String> hops = new ArrayList<>();
+        for (String header : headers) {
+            for (String hop : StringUtils.commaDelimitedListToStringArray(header)) {
+                hops.add(hop.trim());
+            }
+        }
+        return hops;
+    }
+
+    private boolean isTrusted(String ip) {
+        if (!isIpLiteral(ip)) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(ip)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只接受IP字面量，避免 {@link IpAddressMatcher} 对主机名发起DNS解析
+     */
+    private static boolean isIpLiteral(String value) {
+        return IPV4.matcher(value).matches() || (value.indexOf(':') >= 0 && IPV6.matcher(value).matches());
+    }
+}
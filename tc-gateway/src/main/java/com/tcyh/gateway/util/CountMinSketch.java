@@ -0,0 +1,104 @@
+package com.tcyh.gateway.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的 Count-Min 频率估计
+ * <p>
+ * 固定 depth × width 个计数器，内存与元素数量无关；估计值只会高估不会低估，
+ * 以 1 - e^-depth 的概率高估量不超过 e / width × 总计数。
+ * 下标计算公开，便于在Redis哈希中以 "行:列" 为字段保存同构的计数器并查询。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray cells;
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.cells = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * 累加计数
+     */
+    public void add(String item, long delta) {
+        long hash1 = Hashing.fnv1a64(item);
+        long hash2 = Hashing.mix64(hash1);
+        for (int row = 0; row < depth; row++) {
+            cells.addAndGet(row * width + column(hash1, hash2, row, width), delta);
+        }
+    }
+
+    /**
+     * 把另一个同尺寸 Count-Min 的计数累加到本实例
+     */
+    public void merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Count-Min尺寸不一致");
+        }
+        for (int i = 0; i < cells.length(); i++) {
+            long count = other.cells.get(i);
+            if (count != 0) {
+                cells.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * 估计计数
+     */
+    public long estimate(String item) {
+        long hash1 = Hashing.fnv1a64(item);
+        long hash2 = Hashing.mix64(hash1);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, cells.get(row * width + column(hash1, hash2, row, width)));
+        }
+        return min;
+    }
+
+    /**
+     * 元素在每一行的列下标
+     */
+    public static int[] columns(String item, int depth, int width) {
+        long hash1 = Hashing.fnv1a64(item);
+        long hash2 = Hashing.mix64(hash1);
+        int[] columns = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            columns[row] = column(hash1, hash2, row, width);
+        }
+        return columns;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * 计数器个数，即内存上界
+     */
+    public int size() {
+        return cells.length();
+    }
+
+    /**
+     * 读取计数器
+     */
+    public long get(int row, int column) {
+        return cells.get(row * width + column);
+    }
+
+    private static int column(long hash1, long hash2, int row, int width) {
+        return (int) Math.floorMod(hash1 + row * hash2, (long) width);
+    }
+}
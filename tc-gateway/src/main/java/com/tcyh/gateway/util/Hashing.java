@@ -0,0 +1,36 @@
+package com.tcyh.gateway.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 概率数据结构共用的哈希函数：FNV-1a 64位 + 64位混淆，用于双重哈希生成多个独立下标
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * FNV-1a 64位哈希
+     */
+    public static long fnv1a64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 64位混淆（MurmurHash3 finalizer），结果为奇数，可作为双重哈希的步长
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (z ^ (z >>> 33)) | 1L;
+    }
+}
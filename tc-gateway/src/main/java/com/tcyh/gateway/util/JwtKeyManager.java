@@ -0,0 +1,168 @@
+package com.tcyh.gateway.util;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT密钥管理器
+ * <p>
+ * 启动时一次性加载RS256公钥并构建不可变、线程安全的 {@link JwtParser}，
+ * 之后按固定间隔检查公钥文件内容，发生变化时原子替换密钥与解析器（热加载）。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+public class JwtKeyManager implements DisposableBean {
+
+    private static final String PUBLIC_KEY_BEGIN = "-----BEGIN PUBLIC KEY-----";
+    private static final String PUBLIC_KEY_END = "-----END PUBLIC KEY-----";
+
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * 公钥位置，支持 classpath: 与 file: 前缀
+     */
+    @Value("${jwt.public-key-location:classpath:jwt-public-key.pem}")
+    private String publicKeyLocation;
+
+    /**
+     * 公钥变更检查间隔（秒），小于等于0时关闭热加载
+     */
+    @Value("${jwt.key-reload-interval:30}")
+    private long reloadIntervalSeconds;
+
+    /**
+     * 当前生效的密钥材料，整体替换保证读取方看到一致的公钥与解析器
+     */
+    private volatile KeyMaterial current;
+
+    private ScheduledExecutorService reloadExecutor;
+
+    public JwtKeyManager(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            current = loadKeyMaterial();
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("JWT公钥加载失败: " + publicKeyLocation, e);
+        }
+        log.info("JWT公钥加载完成: location={}", publicKeyLocation);
+
+        if (reloadIntervalSeconds > 0) {
+            reloadExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "jwt-key-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloadExecutor.scheduleWithFixedDelay(this::reloadIfChanged,
+                    reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 获取当前公钥对应的JWT解析器
+     */
+    public JwtParser getParser() {
+        return current.parser();
+    }
+
+    /**
+     * 获取当前公钥
+     */
+    public PublicKey getPublicKey() {
+        return current.publicKey();
+    }
+
+    /**
+     * 检查公钥文件是否变化，变化时重新加载；加载失败保留旧密钥
+     */
+    public void reloadIfChanged() {
+        try {
+            byte[] content = readResource();
+            if (Arrays.equals(fingerprint(content), current.fingerprint())) {
+                return;
+            }
+            current = buildKeyMaterial(content);
+            log.info("检测到JWT公钥变更，已热加载: location={}", publicKeyLocation);
+        } catch (Exception e) {
+            log.error("JWT公钥热加载失败，继续使用旧公钥: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 解析PEM格式的RSA公钥
+     *
+     * @param pem PEM内容
+     * @return 公钥
+     */
+    public static PublicKey parsePublicKey(String pem) throws GeneralSecurityException {
+        String content = pem.replace(PUBLIC_KEY_BEGIN, "")
+                .replace(PUBLIC_KEY_END, "")
+                .replaceAll("\\s", "");
+        byte[] keyBytes = Base64.getDecoder().decode(content);
+        return KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(keyBytes));
+    }
+
+    private KeyMaterial loadKeyMaterial() throws IOException, GeneralSecurityException {
+        return buildKeyMaterial(readResource());
+    }
+
+    private KeyMaterial buildKeyMaterial(byte[] content) throws GeneralSecurityException {
+        PublicKey publicKey = parsePublicKey(new String(content, StandardCharsets.UTF_8));
+        JwtParser parser = Jwts.parserBuilder()
+                .setSigningKey(publicKey)
+                .build();
+        return new KeyMaterial(publicKey, parser, fingerprint(content));
+    }
+
+    private byte[] readResource() throws IOException {
+        Resource resource = resourceLoader.getResource(publicKeyLocation);
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] fingerprint(byte[] content) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    /**
+     * 密钥材料：公钥、对应的解析器及文件指纹
+     */
+    private record KeyMaterial(PublicKey publicKey, JwtParser parser, byte[] fingerprint) {
+    }
+}
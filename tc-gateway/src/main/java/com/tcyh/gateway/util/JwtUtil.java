@@ -1,19 +1,10 @@
 package com.tcyh.gateway.util;
 
 import io.jsonwebtoken.*;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.security.KeyFactory;
-import java.security.NoSuchAlgorithmException;
-import java.security.PublicKey;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.X509EncodedKeySpec;
-import java.util.Base64;
 import java.util.Date;
 
 /**
@@ -24,8 +15,31 @@ import java.util.Date;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
+    private final JwtKeyManager jwtKeyManager;
+
+    /**
+     * 验签并解析token，只做一次签名校验
+     * 
+     * @param token JWT token
+     * @return 验证结果，token无效、已过期或声明格式错误时返回 null
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = getClaimsFromToken(token);
+        if (claims == null) {
+            return null;
+        }
+        try {
+            VerifiedToken verifiedToken = new VerifiedToken(claims);
+            return verifiedToken.isExpired() ? null : verifiedToken;
+        } catch (NumberFormatException e) {
+            log.error("JWT token声明格式错误: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 从token中获取用户ID
      * 
@@ -67,13 +81,10 @@ public class JwtUtil {
      */
     private Claims getClaimsFromToken(String token) {
         try {
-            PublicKey publicKey = getPublicKey();
-            return Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
-                    .build()
+            return jwtKeyManager.getParser()
                     .parseClaimsJws(token)
                     .getBody();
-        } catch (JwtException | IllegalArgumentException | NoSuchAlgorithmException | InvalidKeySpecException | IOException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             log.error("JWT token解析失败: {}", e.getMessage());
             return null;
         }
@@ -104,8 +115,8 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = getUsernameFromToken(token);
-            return (username.equals(tokenUsername) && !isTokenExpired(token));
+            VerifiedToken verifiedToken = verify(token);
+            return verifiedToken != null && username.equals(verifiedToken.getUsername());
         } catch (Exception e) {
             log.error("验证token失败: {}", e.getMessage());
             return false;
@@ -120,27 +131,10 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token) {
         try {
-            Claims claims = getClaimsFromToken(token);
-            return claims != null && !isTokenExpired(token);
+            return verify(token) != null;
         } catch (Exception e) {
             log.error("验证token失败: {}", e.getMessage());
             return false;
         }
     }
-
-    /**
-     * 获取公钥
-     */
-    private PublicKey getPublicKey() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
-        ClassPathResource resource = new ClassPathResource("jwt-public-key.pem");
-        String publicKeyContent = new String(Files.readAllBytes(resource.getFile().toPath()));
-        publicKeyContent = publicKeyContent.replaceAll("\\n", "")
-                .replace("-----BEGIN PUBLIC KEY-----", "")
-                .replace("-----END PUBLIC KEY-----", "");
-        
-        byte[] keyBytes = Base64.getDecoder().decode(publicKeyContent);
-        X509EncodedKeySpec spec = new X509EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-        return keyFactory.generatePublic(spec);
-    }
 }
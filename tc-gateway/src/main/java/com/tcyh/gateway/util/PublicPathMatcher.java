@@ -0,0 +1,95 @@
+package com.tcyh.gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tcyh.gateway.config.AuthProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+/**
+ * 公开路径匹配器
+ * <p>
+ * 把配置的公开路径预编译为 {@link PathPattern}，并用有界缓存记录路径的匹配结果，
+ * 请求路径不再逐个编译正则。公开路径更新时先编译新的模式与空缓存，
+ * 再一次性替换 {@link Snapshot}，请求线程始终看到同一版本的模式与缓存，无需加锁。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(AuthProperties.class)
+public class PublicPathMatcher {
+
+    /**
+     * 匹配结果缓存上限，防止随机路径撑爆内存
+     */
+    private static final int RESULT_CACHE_SIZE = 10_000;
+
+    private volatile Snapshot snapshot;
+
+    public PublicPathMatcher(AuthProperties properties) {
+        this.snapshot = Snapshot.compile(properties.publicPaths());
+        log.info("公开路径匹配器初始化完成: {}", properties.publicPaths());
+    }
+
+    /**
+     * 替换公开路径，模式编译失败时抛出异常并保留原配置
+     *
+     * @param publicPaths 新的公开路径
+     */
+    public void update(List<String> publicPaths) {
+        this.snapshot = Snapshot.compile(publicPaths);
+        log.info("公开路径已更新: {}", publicPaths);
+    }
+
+    /**
+     * 当前生效的公开路径
+     */
+    public List<String> getPublicPaths() {
+        return snapshot.patterns().stream().map(PathPattern::getPatternString).toList();
+    }
+
+    /**
+     * 是否为公开路径
+     *
+     * @param path 请求路径
+     * @return 是否公开
+     */
+    public boolean isPublic(String path) {
+        Snapshot current = snapshot;
+        return current.resultCache().get(path, current::matches);
+    }
+
+    /**
+     * 预编译的模式与对应的匹配结果缓存
+     */
+    private record Snapshot(List<PathPattern> patterns, Cache<String, Boolean> resultCache) {
+
+        static Snapshot compile(List<String> publicPaths) {
+            List<PathPattern> patterns = publicPaths.stream()
+                    .map(PathPatternParser.defaultInstance::parse)
+                    .toList();
+            Cache<String, Boolean> resultCache = Caffeine.newBuilder()
+                    .maximumSize(RESULT_CACHE_SIZE)
+                    .build();
+            return new Snapshot(patterns, resultCache);
+        }
+
+        boolean matches(String path) {
+            PathContainer pathContainer = PathContainer.parsePath(path);
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(pathContainer)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
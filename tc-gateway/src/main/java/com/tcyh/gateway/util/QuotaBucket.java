@@ -0,0 +1,119 @@
+package com.tcyh.gateway.util;
+
+/**
+ * 本地令牌桶 - 按固定窗口补满，定期与Redis中的全局配额对账
+ * <p>
+ * 每个窗口的令牌数为 {@code limit}，本地可用令牌 = limit - 已知全局用量 - 对账中的用量 - 本地未上报用量。
+ * 请求线程只在本地扣减令牌；对账线程通过 {@link #drain()} 取出未上报用量累加到Redis，
+ * 再通过 {@link #reconcile(long, long, long)} 用Redis返回的全局用量校正本地令牌数。
+ * <p>
+ * 多实例间的误差上界：每个实例在两次对账之间最多多放行一次对账间隔内的请求量，
+ * 即超出量不超过 (实例数 - 1) × 单实例每个对账间隔内放行的请求数。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class QuotaBucket {
+
+    private final long limit;
+    private final long windowMillis;
+
+    private long windowIndex = -1;
+    private long reportedWindow = -1;
+    private long globalUsed;
+    private long inFlight;
+    private long pending;
+
+    /**
+     * @param limit        每个窗口允许的请求数
+     * @param windowMillis 窗口长度（毫秒）
+     */
+    public QuotaBucket(long limit, long windowMillis) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @return 是否获取成功
+     */
+    public synchronized boolean tryAcquire(long nowMillis) {
+        roll(nowMillis);
+        if (globalUsed + inFlight + pending >= limit) {
+            return false;
+        }
+        pending++;
+        return true;
+    }
+
+    /**
+     * 当前窗口剩余时间（毫秒），用于 Retry-After
+     */
+    public long millisUntilRefill(long nowMillis) {
+        return windowMillis - Math.floorMod(nowMillis, windowMillis);
+    }
+
+    /**
+     * 取出本地未上报的用量，转为对账中状态
+     *
+     * @return 未上报用量及其所属窗口，没有未上报用量时返回 null
+     */
+    public synchronized Drain drain() {
+        if (pending == 0) {
+            return null;
+        }
+        Drain drain = new Drain(windowIndex, pending, reportedWindow != windowIndex);
+        reportedWindow = windowIndex;
+        inFlight += pending;
+        pending = 0;
+        return drain;
+    }
+
+    /**
+     * 用Redis返回的全局用量校正本地令牌数
+     *
+     * @param drainedWindow 上报用量所属窗口
+     * @param drained       上报的用量
+     * @param globalCount   Redis中该窗口累加后的全局用量，上报失败时传 -1
+     */
+    public synchronized void reconcile(long drainedWindow, long drained, long globalCount) {
+        if (drainedWindow != windowIndex) {
+            // 窗口已滚动，旧窗口的对账结果不再影响本地令牌
+            return;
+        }
+        inFlight -= drained;
+        // 上报失败时保留本地用量，继续按本地计数限流
+        globalUsed = globalCount < 0 ? globalUsed + drained : Math.max(globalUsed + drained, globalCount);
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    private void roll(long nowMillis) {
+        long index = Math.floorDiv(nowMillis, windowMillis);
+        if (index != windowIndex) {
+            windowIndex = index;
+            globalUsed = 0;
+            inFlight = 0;
+            pending = 0;
+        }
+    }
+
+    /**
+     * 一次上报的用量
+     *
+     * @param windowIndex 所属窗口序号
+     * @param count       用量
+     * @param first       是否为本实例在该窗口的首次上报
+     */
+    public record Drain(long windowIndex, long count, boolean first) {
+
+    }
+}
@@ -0,0 +1,68 @@
+package com.tcyh.gateway.util;
+
+import java.util.Arrays;
+
+/**
+ * 滑动窗口计数器
+ * <p>
+ * 窗口被划分为固定数量的槽，每个槽记录所属的槽序号与计数，
+ * 写入时复用已滑出窗口的槽，窗口内总数为仍在窗口内的各槽之和。
+ * 内存占用固定，与请求量无关。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class SlidingWindowCounter {
+
+    private final long slotMillis;
+    private final long[] slots;
+    private final long[] counts;
+
+    /**
+     * @param windowMillis 窗口长度（毫秒）
+     * @param slotCount    槽数量，越多窗口边界越平滑
+     */
+    public SlidingWindowCounter(long windowMillis, int slotCount) {
+        this.slotMillis = Math.max(1, windowMillis / slotCount);
+        this.slots = new long[slotCount];
+        this.counts = new long[slotCount];
+        Arrays.fill(slots, Long.MIN_VALUE);
+    }
+
+    /**
+     * 计数加一
+     *
+     * @param now 当前时间（毫秒）
+     * @return 加一后窗口内的总数
+     */
+    public synchronized long increment(long now) {
+        long slot = now / slotMillis;
+        int index = (int) Math.floorMod(slot, (long) slots.length);
+        if (slots[index] != slot) {
+            slots[index] = slot;
+            counts[index] = 0;
+        }
+        counts[index]++;
+        return sum(slot);
+    }
+
+    /**
+     * 窗口内的总数
+     *
+     * @param now 当前时间（毫秒）
+     */
+    public synchronized long get(long now) {
+        return sum(now / slotMillis);
+    }
+
+    private long sum(long currentSlot) {
+        long oldest = currentSlot - slots.length;
+        long total = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] > oldest && slots[i] <= currentSlot) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tcyh.gateway.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 高频元素（heavy hitter）统计
+ * <p>
+ * 最多维护 {@code capacity} 个计数器，新元素在计数器已满时替换计数最小的元素并继承其计数，
+ * 因此内存固定；每个元素的计数最多高估 {@code error}，出现频率高于 N / capacity 的元素必定被保留。
+ * 替换时需要 O(capacity) 查找最小计数，不是线程安全的：请求线程应先在并发结构中预聚合，
+ * 由单个后台线程按元素与次数批量 {@link #offer(String, long)}。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 记录一次出现
+     */
+    public void offer(String item) {
+        offer(item, 1);
+    }
+
+    /**
+     * 记录多次出现
+     *
+     * @param item  元素
+     * @param count 出现次数
+     */
+    public void offer(String item, long count) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count += count;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(item, count, 0));
+            return;
+        }
+        Counter min = null;
+        for (Counter candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.item);
+        counters.put(item, new Counter(item, min.count + count, min.count));
+    }
+
+    /**
+     * 计数最高的若干元素，按计数降序
+     */
+    public List<Item> top(int n) {
+        List<Item> items = new ArrayList<>(counters.size());
+        for (Counter counter : counters.values()) {
+            items.add(new Item(counter.item, counter.count, counter.error));
+        }
+        items.sort((a, b) -> Long.compare(b.count(), a.count()));
+        return items.size() > n ? new ArrayList<>(items.subList(0, n)) : items;
+    }
+
+    private static final class Counter {
+
+        private final String item;
+        private long count;
+        private final long error;
+
+        Counter(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 统计结果
+     *
+     * @param item  元素
+     * @param count 计数（可能高估）
+     * @param error 最大高估量
+     */
+    public record Item(String item, long count, long error) {
+
+    }
+}
@@ -0,0 +1,88 @@
+package com.tcyh.gateway.util;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 已验签的JWT - 一次解析后暴露用户信息、过期时间及自定义声明
+ * <p>
+ * 实例会被 {@link com.tcyh.gateway.service.TokenCacheService} 缓存并在请求间共享，
+ * 因此不持有可变的 {@link Claims}，声明在构造时复制为不可变快照。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Getter
+public final class VerifiedToken {
+
+    /**
+     * 用户ID，声明缺失时为 null
+     */
+    private final Long userId;
+
+    /**
+     * 用户名（subject）
+     */
+    private final String username;
+
+    /**
+     * 过期时间，未设置时为 null
+     */
+    private final Instant expiration;
+
+    /**
+     * 全部声明的不可变快照，值为JWT中的原始类型（字符串、数字、布尔值等）
+     */
+    private final Map<String, Object> claims;
+
+    VerifiedToken(Claims claims) {
+        Object userIdClaim = claims.get("userId");
+        this.userId = userIdClaim != null ? Long.valueOf(userIdClaim.toString()) : null;
+        this.username = claims.getSubject();
+        Date expirationClaim = claims.getExpiration();
+        this.expiration = expirationClaim != null ? expirationClaim.toInstant() : null;
+        Map<String, Object> snapshot = new HashMap<>(claims);
+        snapshot.values().removeIf(value -> value == null);
+        this.claims = Map.copyOf(snapshot);
+    }
+
+    /**
+     * 获取自定义声明，数字类型的声明可按 Long/Integer/Double 读取
+     *
+     * @param name 声明名称
+     * @param type 声明类型
+     * @return 声明值，不存在时为 null
+     * @throws IllegalArgumentException 声明不能转换为指定类型
+     */
+    public <T> T getClaim(String name, Class<T> type) {
+        Object value = claims.get(name);
+        if (value == null || type.isInstance(value)) {
+            return type.cast(value);
+        }
+        if (value instanceof Number number) {
+            if (type == Long.class) {
+                return type.cast(number.longValue());
+            }
+            if (type == Integer.class) {
+                return type.cast(number.intValue());
+            }
+            if (type == Double.class) {
+                return type.cast(number.doubleValue());
+            }
+        }
+        throw new IllegalArgumentException("声明 " + name + " 的类型为 " + value.getClass().getName()
+                + "，不能转换为 " + type.getName());
+    }
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+}
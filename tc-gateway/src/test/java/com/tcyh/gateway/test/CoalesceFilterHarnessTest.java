@@ -0,0 +1,123 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.filter.CoalesceGatewayFilterFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 请求合并过滤器测试 - 本地桩后端统计上游调用次数
+ * <p>
+ * 桩后端 {@code /hot} 延迟200ms返回小响应，{@code /big} 返回64KB响应，
+ * {@code /no-store} 与 {@code /private} 分别带对应的 Cache-Control。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class CoalesceFilterHarnessTest extends StubBackendHarness {
+
+    private static final int BIG_BODY_SIZE = 64 * 1024;
+
+    @Override
+    protected void routes(HttpServerRoutes routes) {
+        routes.get("/hot", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.sendString(Mono.just("hot").delayElement(Duration.ofMillis(200)));
+                })
+                .get("/big", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.sendString(Mono.just("x".repeat(BIG_BODY_SIZE)).delayElement(Duration.ofMillis(200)));
+                })
+                .get("/no-store", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, max-age=0, must-revalidate")
+                            .sendString(Mono.just("fresh").delayElement(Duration.ofMillis(200)));
+                })
+                .get("/private", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.header(HttpHeaders.CACHE_CONTROL, "private, max-age=60")
+                            .sendString(Mono.just("mine").delayElement(Duration.ofMillis(200)));
+                });
+    }
+
+    @Test
+    public void concurrentIdenticalGetsReachUpstreamOnce() {
+        GatewayFilter filter = filter(new CoalesceGatewayFilterFactory.Config());
+
+        List<String> bodies = executeConcurrently(filter, "/hot?id=1", 50);
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(50, bodies.size());
+        assertTrue(bodies.stream().allMatch("hot"::equals));
+    }
+
+    @Test
+    public void noStoreResponseIsShared() {
+        GatewayFilter filter = filter(new CoalesceGatewayFilterFactory.Config());
+
+        List<String> bodies = executeConcurrently(filter, "/no-store", 20);
+
+        // 共享进行中的响应不是存储，no-store 不阻止合并
+        assertEquals(1, backendCalls.get());
+        assertTrue(bodies.stream().allMatch("fresh"::equals));
+    }
+
+    @Test
+    public void privateResponseIsNotShared() {
+        GatewayFilter filter = filter(new CoalesceGatewayFilterFactory.Config());
+
+        List<String> bodies = executeConcurrently(filter, "/private", 5);
+
+        assertEquals(5, backendCalls.get());
+        assertTrue(bodies.stream().allMatch("mine"::equals));
+    }
+
+    @Test
+    public void differentQueriesAreNotCoalesced() {
+        GatewayFilter filter = filter(new CoalesceGatewayFilterFactory.Config());
+
+        Flux.merge(execute(filter, "/hot?id=1"), execute(filter, "/hot?id=2"))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    public void oversizedBodyFallsBackToUpstream() {
+        CoalesceGatewayFilterFactory.Config config = new CoalesceGatewayFilterFactory.Config();
+        config.setMaxBodyBytes(1024);
+        GatewayFilter filter = filter(config);
+
+        List<String> bodies = executeConcurrently(filter, "/big", 5);
+
+        // 超过共享上限时follower各自转发，响应仍然完整
+        assertEquals(5, backendCalls.get());
+        assertTrue(bodies.stream().allMatch(body -> body.length() == BIG_BODY_SIZE));
+    }
+
+    private static GatewayFilter filter(CoalesceGatewayFilterFactory.Config config) {
+        return new CoalesceGatewayFilterFactory(new SimpleMeterRegistry()).apply(config);
+    }
+
+    private List<String> executeConcurrently(GatewayFilter filter, String uri, int concurrency) {
+        return Flux.range(0, concurrency)
+                .flatMap(i -> execute(filter, uri), concurrency)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+
+    private Mono<String> execute(GatewayFilter filter, String uri) {
+        return forward(filter, uri).flatMap(exchange -> exchange.getResponse().getBodyAsString());
+    }
+}
@@ -0,0 +1,57 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.util.CountMinSketch;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Count-Min 维度统计测试：估计值不低估且误差在理论上界内，内存上界见 {@link SecurityStatsMemoryTest}
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class CountMinSketchTest {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 2048;
+
+    @Test
+    public void estimatesNeverUnderCountAndStayWithinBound() {
+        CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        long total = 0;
+
+        // 少量攻击IP占大部分流量，其余为大量长尾IP
+        for (int i = 0; i < 200_000; i++) {
+            String ip = random.nextInt(10) < 3 ? ip(random.nextInt(20)) : ip(1000 + random.nextInt(100_000));
+            sketch.add(ip, 1);
+            exact.merge(ip, 1L, Long::sum);
+            total++;
+        }
+
+        long bound = (long) Math.ceil(Math.E / WIDTH * total);
+        int withinBound = 0;
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), "低估: " + entry.getKey());
+            if (estimate - entry.getValue() <= bound) {
+                withinBound++;
+            }
+        }
+        // 理论上以 1 - e^-depth（约98%）的概率误差不超过 e / width × N
+        assertTrue(withinBound >= exact.size() * 0.98, "超出误差上界的比例过高: " + withinBound + "/" + exact.size());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(sketch.estimate(ip(i)) - exact.get(ip(i)) <= bound);
+        }
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}
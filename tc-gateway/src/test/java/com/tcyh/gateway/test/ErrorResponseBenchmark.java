@@ -0,0 +1,75 @@
+package com.tcyh.gateway.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcyh.gateway.handler.ErrorResponseWriter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 401响应体渲染基准测试，配合 GC 分析器比较每个被拒请求的分配量（gc.alloc.rate.norm）
+ * <p>
+ * legacy: 优化前 HashMap + ObjectMapper.writeValueAsString + getBytes + wrap；
+ * template: {@link ErrorResponseWriter} 预编码字节模板，只拼接时间戳与路径。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private static final String PATH = "/api/user/10001/collections";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Benchmark
+    public int legacy() throws Exception {
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 401);
+        result.put("message", "Token无效或已过期");
+        result.put("timestamp", System.currentTimeMillis());
+        result.put("path", PATH);
+        String body = objectMapper.writeValueAsString(result);
+        DataBuffer buffer = bufferFactory.wrap(body.getBytes(StandardCharsets.UTF_8));
+        return release(buffer);
+    }
+
+    @Benchmark
+    public int template() {
+        DataBuffer buffer = ErrorResponseWriter.render(bufferFactory, ErrorResponseWriter.TOKEN_INVALID,
+                System.currentTimeMillis(), PATH);
+        return release(buffer);
+    }
+
+    private static int release(DataBuffer buffer) {
+        int length = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ErrorResponseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.util.JwtKeyManager;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT验签吞吐基准测试
+ * <p>
+ * legacy: 每次验签都读取PEM文件、解码公钥并新建解析器（优化前 JwtUtil 的行为）；
+ * cached: 使用 {@link JwtKeyManager} 持有的预构建解析器。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private Path pemFile;
+    private String token;
+    private JwtParser cachedParser;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException, IOException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        String pem = "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(keyPair.getPublic().getEncoded())
+                + "\n-----END PUBLIC KEY-----\n";
+        pemFile = Files.createTempFile("jwt-public-key", ".pem");
+        Files.writeString(pemFile, pem);
+
+        token = Jwts.builder()
+                .claim("userId", 10001L)
+                .setSubject("benchmark")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+
+        cachedParser = Jwts.parserBuilder()
+                .setSigningKey(JwtKeyManager.parsePublicKey(pem))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pemFile);
+    }
+
+    @Benchmark
+    public Claims legacy() throws GeneralSecurityException, IOException {
+        String pem = Files.readString(pemFile);
+        return Jwts.parserBuilder()
+                .setSigningKey(JwtKeyManager.parsePublicKey(pem))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims cached() {
+        return cachedParser.parseClaimsJws(token).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerifyBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.config.LoadBalancerProperties;
+import com.tcyh.gateway.loadbalancer.InstanceStatsRegistry;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 负载均衡对比基准 - 虚拟时间下的离散事件模拟
+ * <p>
+ * 3个实例，其中一个为慢实例（或快速失败实例），固定数量的并发客户端闭环发请求，
+ * 比较轮询与峰值EWMA二选一的请求延迟分布、错误率与慢实例流量占比。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class LoadBalancerBenchmark {
+
+    private static final int CLIENTS = 30;
+    private static final int REQUESTS = 200_000;
+    private static final long FAST_MEAN_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final List<ServiceInstance> INSTANCES = Arrays.asList(
+            new DefaultServiceInstance("a", "tc-user-service", "10.0.0.1", 8080, false),
+            new DefaultServiceInstance("b", "tc-user-service", "10.0.0.2", 8080, false),
+            new DefaultServiceInstance("c", "tc-user-service", "10.0.0.3", 8080, false));
+
+    public static void main(String[] args) {
+        System.out.println("== 慢实例：c 平均延迟200ms ==");
+        run("round-robin", false, TimeUnit.MILLISECONDS.toNanos(200), false);
+        run("peak-ewma", true, TimeUnit.MILLISECONDS.toNanos(200), false);
+
+        System.out.println("== 故障实例：c 1ms内返回5xx ==");
+        run("round-robin", false, TimeUnit.MILLISECONDS.toNanos(1), true);
+        run("peak-ewma", true, TimeUnit.MILLISECONDS.toNanos(1), true);
+    }
+
+    private static void run(String name, boolean peakEwma, long degradedMeanNanos, boolean degradedFails) {
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(new LoadBalancerProperties(
+                Duration.ofSeconds(10), 5, Duration.ofSeconds(30), Duration.ofMinutes(5), 50, Duration.ofMinutes(10)));
+        Random random = new Random(42);
+        PriorityQueue<long[]> completions = new PriorityQueue<>((x, y) -> Long.compare(x[0], y[0]));
+        long[] latencies = new long[REQUESTS];
+        int[] perInstance = new int[INSTANCES.size()];
+        int errors = 0;
+        int issued = 0;
+        int completed = 0;
+        long now = 1;
+
+        // 每个事件：{完成时间, 实例下标, 开始时间}
+        for (; issued < CLIENTS; issued++) {
+            completions.add(dispatch(registry, peakEwma, issued, now, random, degradedMeanNanos, perInstance));
+        }
+        while (completed < REQUESTS) {
+            long[] event = completions.poll();
+            now = event[0];
+            int index = (int) event[1];
+            long latency = now - event[2];
+            boolean failed = index == 2 && degradedFails;
+            registry.onComplete(INSTANCES.get(index), latency, failed, now);
+            latencies[completed++] = latency;
+            if (failed) {
+                errors++;
+            }
+            if (issued < REQUESTS) {
+                completions.add(dispatch(registry, peakEwma, issued++, now, random, degradedMeanNanos, perInstance));
+            }
+        }
+
+        Arrays.sort(latencies);
+        double meanMillis = Arrays.stream(latencies).average().orElse(0) / 1_000_000;
+        System.out.printf("%-12s mean=%7.2fms p50=%7.2fms p99=%8.2fms p999=%8.2fms errors=%5.2f%% c-share=%5.2f%%%n",
+                name, meanMillis, millis(latencies, 0.50), millis(latencies, 0.99), millis(latencies, 0.999),
+                errors * 100.0 / REQUESTS, perInstance[2] * 100.0 / REQUESTS);
+    }
+
+    private static long[] dispatch(InstanceStatsRegistry registry, boolean peakEwma, int sequence, long now,
+                                   Random random, long degradedMeanNanos, int[] perInstance) {
+        ServiceInstance instance = peakEwma ? registry.select(INSTANCES, now) : INSTANCES.get(sequence % INSTANCES.size());
+        int index = INSTANCES.indexOf(instance);
+        perInstance[index]++;
+        registry.onStart(instance, now);
+        long mean = index == 2 ? degradedMeanNanos : FAST_MEAN_NANOS;
+        long latency = Math.max(1, (long) (-mean * Math.log(1 - random.nextDouble())));
+        return new long[]{now + latency, index, now};
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, quantile * sorted.length)] / 1_000_000.0;
+    }
+}
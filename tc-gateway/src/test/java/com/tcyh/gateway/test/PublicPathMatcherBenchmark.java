@@ -0,0 +1,94 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.config.AuthProperties;
+import com.tcyh.gateway.util.PublicPathMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公开路径匹配基准测试
+ * <p>
+ * legacy: 优化前逐个 String.matches 的正则匹配；
+ * matcher: 预编译 PathPattern + 结果缓存的 {@link PublicPathMatcher}。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicPathMatcherBenchmark {
+
+    private static final String[] PUBLIC_PATHS = {
+            "/api/auth/login",
+            "/api/auth/register",
+            "/api/public/**",
+            "/api/monitor/**",
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/swagger-resources/**",
+            "/webjars/**",
+            "/actuator/**",
+            "/favicon.ico"
+    };
+
+    /**
+     * 网关常见请求路径，大部分为需要认证的业务接口
+     */
+    private static final String[] PATH_CORPUS = {
+            "/api/user/info",
+            "/api/user/settings",
+            "/api/user/10001/follow",
+            "/api/user/10001/fans",
+            "/api/user/tags",
+            "/api/user/messages/unread",
+            "/api/user/collections/page/2",
+            "/api/test/ping",
+            "/api/auth/login",
+            "/api/auth/logout",
+            "/api/public/banner",
+            "/api/monitor/stats",
+            "/actuator/health",
+            "/favicon.ico"
+    };
+
+    private PublicPathMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = new PublicPathMatcher(new AuthProperties(List.of(PUBLIC_PATHS)));
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (String path : PATH_CORPUS) {
+            blackhole.consume(Arrays.stream(PUBLIC_PATHS)
+                    .anyMatch(pattern -> path.matches(pattern.replace("**", ".*"))));
+        }
+    }
+
+    @Benchmark
+    public void matcher(Blackhole blackhole) {
+        for (String path : PATH_CORPUS) {
+            blackhole.consume(matcher.isPublic(path));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PublicPathMatcherBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
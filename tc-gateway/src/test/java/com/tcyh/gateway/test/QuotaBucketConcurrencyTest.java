@@ -0,0 +1,129 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.util.QuotaBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地令牌桶并发准确性测试
+ * <p>
+ * 用 {@link AtomicLong} 模拟Redis中的全局计数键，多实例、多线程并发获取令牌，
+ * 验证单实例放行数严格等于配额，多实例放行数不超过理论误差上界。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class QuotaBucketConcurrencyTest {
+
+    private static final long NOW = 1_000L;
+    private static final long WINDOW_MILLIS = 1_000_000L;
+    private static final int THREADS = 16;
+
+    @Test
+    public void singleInstanceNeverExceedsLimit() throws InterruptedException {
+        long limit = 500;
+        QuotaBucket bucket = new QuotaBucket(limit, WINDOW_MILLIS);
+        AtomicLong admitted = new AtomicLong();
+
+        runConcurrently(THREADS, () -> {
+            for (int i = 0; i < 1000; i++) {
+                if (bucket.tryAcquire(NOW)) {
+                    admitted.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(limit, admitted.get());
+    }
+
+    @Test
+    public void multiInstanceOvershootStaysWithinBound() throws InterruptedException {
+        long limit = 1000;
+        int instances = 4;
+        int attemptsPerThreadPerRound = 5;
+        AtomicLong redisCounter = new AtomicLong();
+        AtomicLong admitted = new AtomicLong();
+        List<QuotaBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            buckets.add(new QuotaBucket(limit, WINDOW_MILLIS));
+        }
+
+        // 每轮各实例并发放行请求，随后逐个实例与“Redis”对账
+        for (int round = 0; round < 100; round++) {
+            runConcurrently(instances * THREADS, new Runnable() {
+                private final AtomicLong next = new AtomicLong();
+
+                @Override
+                public void run() {
+                    QuotaBucket bucket = buckets.get((int) (next.getAndIncrement() % instances));
+                    for (int i = 0; i < attemptsPerThreadPerRound; i++) {
+                        if (bucket.tryAcquire(NOW)) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            for (QuotaBucket bucket : buckets) {
+                QuotaBucket.Drain drain = bucket.drain();
+                if (drain != null) {
+                    bucket.reconcile(drain.windowIndex(), drain.count(), redisCounter.addAndGet(drain.count()));
+                }
+            }
+        }
+
+        // 每个实例在一个对账间隔内最多放行 THREADS × attemptsPerThreadPerRound 个请求
+        long bound = (long) (instances - 1) * THREADS * attemptsPerThreadPerRound;
+        assertTrue(admitted.get() >= limit, "配额未用满: " + admitted.get());
+        assertTrue(admitted.get() <= limit + bound, "超出误差上界: " + admitted.get());
+        assertEquals(admitted.get(), redisCounter.get());
+    }
+
+    @Test
+    public void failedSyncKeepsLocalUsage() {
+        QuotaBucket bucket = new QuotaBucket(10, WINDOW_MILLIS);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(bucket.tryAcquire(NOW));
+        }
+        QuotaBucket.Drain drain = bucket.drain();
+        bucket.reconcile(drain.windowIndex(), drain.count(), -1);
+
+        int granted = 0;
+        while (bucket.tryAcquire(NOW)) {
+            granted++;
+        }
+        assertEquals(4, granted);
+        // 下一个窗口重新补满
+        assertTrue(bucket.tryAcquire(NOW + WINDOW_MILLIS));
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.filter.ResilienceGatewayFilterFactory;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 路由熔断过滤器测试 - 本地桩后端注入延迟与故障
+ * <p>
+ * 桩后端通过 {@code delay} 查询参数注入延迟，{@code /fail} 固定返回500。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class ResilienceFilterHarnessTest extends StubBackendHarness {
+
+    @Override
+    protected void routes(HttpServerRoutes routes) {
+        routes.get("/ok", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    long delay = Long.parseLong(
+                            request.uri().contains("delay=") ? request.uri().replaceAll(".*delay=(\\d+).*", "$1") : "0");
+                    return response.sendString(Mono.just("ok").delayElement(Duration.ofMillis(delay)));
+                })
+                .get("/fail", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.status(500).sendString(Mono.just("boom"));
+                });
+    }
+
+    @Test
+    public void slowBackendTimesOutWith504() {
+        GatewayFilter filter = filter(config("timeout", 10, 100, 200));
+
+        HttpStatusCode status = execute(filter, "/ok?delay=1000");
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, status);
+    }
+
+    @Test
+    public void failingBackendOpensCircuit() {
+        ResilienceGatewayFilterFactory.Config config = config("breaker", 10, 100, 2000);
+        config.setSlidingWindowSize(10);
+        config.setMinimumNumberOfCalls(10);
+        GatewayFilter filter = filter(config);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, execute(filter, "/fail"));
+        }
+        int callsBeforeOpen = backendCalls.get();
+
+        // 熔断打开后直接降级，不再调用后端
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, execute(filter, "/fail"));
+        assertEquals(callsBeforeOpen, backendCalls.get());
+    }
+
+    @Test
+    public void bulkheadRejectsExcessConcurrency() {
+        GatewayFilter filter = filter(config("bulkhead", 2, 100, 5000));
+
+        List<HttpStatusCode> statuses = Flux.range(0, 6)
+                .flatMap(i -> executeAsync(filter, "/ok?delay=300"), 6)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        long rejected = statuses.stream().filter(HttpStatus.SERVICE_UNAVAILABLE::equals).count();
+        long succeeded = statuses.stream().filter(HttpStatus.OK::equals).count();
+        assertEquals(2, succeeded);
+        assertEquals(4, rejected);
+    }
+
+    @Test
+    public void timeoutAdaptsToObservedLatency() {
+        GatewayFilter filter = filter(config("adaptive", 10, 50, 3000));
+
+        // 后端稳定在20ms左右时，超时收紧到远低于上限
+        for (int i = 0; i < 30; i++) {
+            assertEquals(HttpStatus.OK, execute(filter, "/ok?delay=20"));
+        }
+        long start = System.nanoTime();
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, execute(filter, "/ok?delay=2000"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+    }
+
+    @Test
+    public void timeoutBacksOffWhenLatencyIncreases() {
+        GatewayFilter filter = filter(config("backoff", 10, 50, 3000));
+
+        for (int i = 0; i < 30; i++) {
+            assertEquals(HttpStatus.OK, execute(filter, "/ok?delay=20"));
+        }
+
+        // 后端变慢到300ms后，每次超时使超时时间加倍，几次超时后请求恢复成功
+        int timeouts = 0;
+        while (execute(filter, "/ok?delay=300") == HttpStatus.GATEWAY_TIMEOUT) {
+            timeouts++;
+            assertTrue(timeouts < 8, "超时未随上游变慢而放宽");
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(HttpStatus.OK, execute(filter, "/ok?delay=300"));
+        }
+    }
+
+    private GatewayFilter filter(ResilienceGatewayFilterFactory.Config config) {
+        return new ResilienceGatewayFilterFactory(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults())
+                .apply(config);
+    }
+
+    private static ResilienceGatewayFilterFactory.Config config(String name, int maxConcurrentCalls,
+                                                                long minTimeoutMillis, long maxTimeoutMillis) {
+        ResilienceGatewayFilterFactory.Config config = new ResilienceGatewayFilterFactory.Config();
+        config.setName(name);
+        config.setMaxConcurrentCalls(maxConcurrentCalls);
+        config.setMinTimeoutMillis(minTimeoutMillis);
+        config.setMaxTimeoutMillis(maxTimeoutMillis);
+        return config;
+    }
+
+    private HttpStatusCode execute(GatewayFilter filter, String uri) {
+        return executeAsync(filter, uri).block(Duration.ofSeconds(10));
+    }
+
+    private Mono<HttpStatusCode> executeAsync(GatewayFilter filter, String uri) {
+        return forward(filter, uri).mapNotNull(exchange -> exchange.getResponse().getStatusCode());
+    }
+}
@@ -0,0 +1,98 @@
+package com.tcyh.gateway.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcyh.gateway.config.ResponseCacheProperties;
+import com.tcyh.gateway.filter.ResponseCacheGatewayFilterFactory;
+import com.tcyh.gateway.service.ResponseCacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 响应缓存过滤器测试 - 本地桩后端返回真实的 Cache-Control 头
+ * <p>
+ * {@code /profile} 与用户服务可缓存路径一致，返回 {@code private, max-age=60}；
+ * {@code /no-store} 返回Spring Security默认的不可缓存头。只使用本地缓存，不依赖Redis。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class ResponseCacheFilterHarnessTest extends StubBackendHarness {
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    @Override
+    protected void routes(HttpServerRoutes routes) {
+        routes.get("/profile", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.header(HttpHeaders.CACHE_CONTROL, "private, max-age=60")
+                            .sendString(Mono.just("profile"));
+                })
+                .get("/no-store", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return response.header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, max-age=0, must-revalidate")
+                            .sendString(Mono.just("fresh"));
+                });
+    }
+
+    @Test
+    public void privateResponseIsServedFromCache() {
+        GatewayFilter filter = filter();
+
+        MockServerWebExchange first = execute(filter, MockServerHttpRequest.get("/profile").build());
+        MockServerWebExchange second = execute(filter, MockServerHttpRequest.get("/profile").build());
+
+        assertEquals(1, backendCalls.get());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(CACHE_STATUS_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(CACHE_STATUS_HEADER));
+        assertEquals("profile", second.getResponse().getBodyAsString().block(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    public void matchingEtagReturnsNotModified() {
+        GatewayFilter filter = filter();
+
+        String etag = execute(filter, MockServerHttpRequest.get("/profile").build())
+                .getResponse().getHeaders().getETag();
+        assertNotNull(etag);
+        MockServerWebExchange revalidated = execute(filter,
+                MockServerHttpRequest.get("/profile").header(HttpHeaders.IF_NONE_MATCH, etag).build());
+
+        assertEquals(1, backendCalls.get());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+    }
+
+    @Test
+    public void noStoreResponseIsNotCached() {
+        GatewayFilter filter = filter();
+
+        execute(filter, MockServerHttpRequest.get("/no-store").build());
+        MockServerWebExchange second = execute(filter, MockServerHttpRequest.get("/no-store").build());
+
+        assertEquals(2, backendCalls.get());
+        assertEquals("fresh", second.getResponse().getBodyAsString().block(Duration.ofSeconds(5)));
+    }
+
+    private static GatewayFilter filter() {
+        ResponseCacheService responseCacheService = new ResponseCacheService(null, null, new ObjectMapper(),
+                new ResponseCacheProperties(10000L, DataSize.ofKilobytes(256)), new SimpleMeterRegistry());
+        return new ResponseCacheGatewayFilterFactory(responseCacheService)
+                .apply(new ResponseCacheGatewayFilterFactory.Config());
+    }
+
+    private MockServerWebExchange execute(GatewayFilter filter, MockServerHttpRequest request) {
+        return forward(filter, request).block(Duration.ofSeconds(10));
+    }
+}
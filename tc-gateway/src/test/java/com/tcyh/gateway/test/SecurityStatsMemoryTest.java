@@ -0,0 +1,101 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.config.StatsProperties;
+import com.tcyh.gateway.service.SecurityStatsService;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RHyperLogLogAsync;
+import org.redisson.api.RMapAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 安全统计内存上界测试：IP/用户数量远超上限时，本地计数窗口与写入Redis的维度摘要均保持有界
+ * <p>
+ * 用模拟的 {@link RBatch} 记录每次刷入写入的 Count-Min 哈希字段与 HyperLogLog 元素，
+ * 不依赖真实Redis。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class SecurityStatsMemoryTest {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 256;
+    private static final int MAX_DISTINCT = 1000;
+    private static final int ENTITIES = 20_000;
+
+    private final Map<String, Set<String>> sketchFields = new HashMap<>();
+    private final Map<String, Integer> distinctAdded = new HashMap<>();
+
+    @Test
+    public void dimensionsStayBoundedBeyondMaxDistinct() {
+        SecurityStatsService service = new SecurityStatsService(redissonClient(), null, new StatsProperties(
+                Duration.ofSeconds(1), Duration.ofHours(2), Duration.ofDays(2), Duration.ofDays(7), Duration.ofDays(7),
+                DEPTH, WIDTH, MAX_DISTINCT, false));
+
+        for (int i = 0; i < ENTITIES; i++) {
+            service.recordTokenValidateSuccess("user-" + i, ip(i));
+        }
+        // 未启动刷入线程，destroy 连续刷入两次，写出全部计数
+        service.destroy();
+
+        // 用户与IP两个维度各一个 Count-Min 哈希与一个 HyperLogLog
+        assertEquals(2, sketchFields.size());
+        assertEquals(2, distinctAdded.size());
+        for (Map.Entry<String, Set<String>> entry : sketchFields.entrySet()) {
+            assertTrue(entry.getValue().size() <= DEPTH * WIDTH,
+                    "Count-Min 字段数超过 depth × width: " + entry.getKey() + "=" + entry.getValue().size());
+        }
+        for (Map.Entry<String, Integer> entry : distinctAdded.entrySet()) {
+            assertEquals(MAX_DISTINCT, entry.getValue(), "去重集合未按 maxDistinctPerFlush 截断: " + entry.getKey());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedissonClient redissonClient() {
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        RBatch batch = mock(RBatch.class, RETURNS_DEEP_STUBS);
+        when(redissonClient.createBatch(any(BatchOptions.class))).thenReturn(batch);
+        when(batch.getMap(anyString(), any(Codec.class))).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            RMapAsync<String, Long> map = mock(RMapAsync.class);
+            when(map.addAndGetAsync(anyString(), any(Number.class))).thenAnswer(add -> {
+                sketchFields.computeIfAbsent(key, k -> new HashSet<>()).add(add.getArgument(0));
+                return null;
+            });
+            return map;
+        });
+        when(batch.getHyperLogLog(anyString(), any(Codec.class))).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0);
+            RHyperLogLogAsync<String> hyperLogLog = mock(RHyperLogLogAsync.class);
+            when(hyperLogLog.addAllAsync(anyCollection())).thenAnswer(add -> {
+                distinctAdded.merge(key, ((Collection<?>) add.getArgument(0)).size(), Integer::sum);
+                return null;
+            });
+            return hyperLogLog;
+        });
+        return redissonClient;
+    }
+
+    private static String ip(int i) {
+        return "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+    }
+}
@@ -0,0 +1,74 @@
+package com.tcyh.gateway.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 路由过滤器测试基类 - 本地桩后端与模拟转发的过滤器链
+ * <p>
+ * 每个测试前在随机端口启动 reactor-netty 桩后端，路由由子类定义，{@link #backendCalls} 由桩路由自行计数；
+ * 过滤器链末端用 reactor-netty 客户端调用桩后端，复制状态码、响应头与响应体，模拟网关路由转发。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public abstract class StubBackendHarness {
+
+    protected final AtomicInteger backendCalls = new AtomicInteger();
+    private DisposableServer backend;
+    private HttpClient client;
+
+    @BeforeEach
+    public void startBackend() {
+        backend = HttpServer.create()
+                .port(0)
+                .route(this::routes)
+                .bindNow();
+        client = HttpClient.create().baseUrl("http://localhost:" + backend.port());
+    }
+
+    @AfterEach
+    public void stopBackend() {
+        backend.disposeNow();
+    }
+
+    /**
+     * 定义桩后端的路由
+     */
+    protected abstract void routes(HttpServerRoutes routes);
+
+    /**
+     * 对GET请求执行过滤器，过滤器链末端转发到桩后端，完成后返回交换对象
+     */
+    protected Mono<MockServerWebExchange> forward(GatewayFilter filter, String uri) {
+        return forward(filter, MockServerHttpRequest.get(uri).build());
+    }
+
+    /**
+     * 对指定请求执行过滤器，转发时只携带请求的路径与查询串
+     */
+    protected Mono<MockServerWebExchange> forward(GatewayFilter filter, MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        GatewayFilterChain proxy = ex -> client.get().uri(request.getURI().toString())
+                .responseSingle((response, body) -> {
+                    ex.getResponse().setStatusCode(HttpStatusCode.valueOf(response.status().code()));
+                    response.responseHeaders().forEach(header ->
+                            ex.getResponse().getHeaders().add(header.getKey(), header.getValue()));
+                    return body.asByteArray().defaultIfEmpty(new byte[0]);
+                })
+                .flatMap(bytes -> ex.getResponse().writeWith(Mono.just(ex.getResponse().bufferFactory().wrap(bytes))));
+        return filter.filter(exchange, proxy).thenReturn(exchange);
+    }
+}
@@ -0,0 +1,143 @@
+package com.tcyh.gateway.test;
+
+import com.tcyh.gateway.config.UpstreamProperties;
+import com.tcyh.gateway.filter.PooledNettyRoutingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.ResolvableType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 上游连接池对比基准 - 本地桩上游
+ * <p>
+ * 桩上游同时支持HTTP/1.1与h2c，每个请求固定延迟5ms，并统计建立的TCP连接数。
+ * 客户端由 {@link PooledNettyRoutingFilter} 按 {@link UpstreamProperties} 构建，与网关转发时取得的 HttpClient 相同：
+ * 未绑定连接池的路由（默认 HttpClient 不复用连接）、HTTP/1.1连接池，以及与 application.yml 中
+ * tc-user-service 相同配置的h2c连接池。固定并发的客户端闭环发请求，比较新建连接数、吞吐与延迟分布。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class UpstreamPoolBenchmark {
+
+    private static final int CONCURRENCY = 64;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int REQUESTS = 10_000;
+    private static final Duration BACKEND_DELAY = Duration.ofMillis(5);
+
+    private static final String HTTP11_POOL = "bench-http11";
+    private static final String H2C_POOL = "bench-h2c";
+
+    private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+    public static void main(String[] args) {
+        DisposableServer backend = HttpServer.create()
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, remoteAddress) -> CONNECTIONS.incrementAndGet())
+                .route(routes -> routes.get("/work", (request, response) ->
+                        response.sendString(Mono.just("ok").delayElement(BACKEND_DELAY))))
+                .bindNow();
+        UpstreamProperties upstreamProperties = new UpstreamProperties(Map.of(
+                HTTP11_POOL, pool(CONCURRENCY, UpstreamProperties.Protocol.HTTP11),
+                H2C_POOL, pool(16, UpstreamProperties.Protocol.H2C)));
+        ConnectionProvider noPool = ConnectionProvider.newConnection();
+        BenchmarkRoutingFilter filter = new BenchmarkRoutingFilter(HttpClient.create(noPool), upstreamProperties);
+        try {
+            run("no-pool", filter, null, backend.port());
+            run("http11-pool", filter, HTTP11_POOL, backend.port());
+            run("h2c-pool", filter, H2C_POOL, backend.port());
+        } finally {
+            filter.destroy();
+            noPool.disposeLater().block();
+            backend.disposeNow();
+        }
+    }
+
+    /**
+     * 与 application.yml 中 tc.gateway.upstream.pools 相同的连接池参数
+     */
+    private static UpstreamProperties.Pool pool(int maxConnections, UpstreamProperties.Protocol protocol) {
+        return new UpstreamProperties.Pool(maxConnections, 100, 1000, Duration.ofSeconds(2),
+                Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofSeconds(30), protocol);
+    }
+
+    private static void run(String name, BenchmarkRoutingFilter filter, String poolName, int port) {
+        String uri = "http://localhost:" + port;
+        Route.AsyncBuilder route = Route.async().id(name).uri(uri).predicate(exchange -> true);
+        if (poolName != null) {
+            route.metadata(PooledNettyRoutingFilter.UPSTREAM_POOL_ATTR, poolName);
+        }
+        HttpClient client = filter.clientFor(route.build()).baseUrl(uri);
+
+        execute(client, WARMUP_REQUESTS);
+        CONNECTIONS.set(0);
+        long start = System.nanoTime();
+        long[] latencies = execute(client, REQUESTS);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-12s connections=%6d rps=%8.0f p50=%6.2fms p99=%7.2fms p999=%7.2fms%n",
+                name, CONNECTIONS.get(), REQUESTS / (elapsed / 1e9),
+                millis(latencies, 0.5), millis(latencies, 0.99), millis(latencies, 0.999));
+    }
+
+    private static long[] execute(HttpClient client, int requests) {
+        long[] latencies = new long[requests];
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    return client.get()
+                            .uri("/work")
+                            .responseContent()
+                            .aggregate()
+                            .asString()
+                            .doOnNext(body -> latencies[i] = System.nanoTime() - start);
+                }, CONCURRENCY)
+                .blockLast();
+        return latencies;
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+        return sorted[index] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * 按网关转发时的方式为路由取得 HttpClient
+     */
+    private static final class BenchmarkRoutingFilter extends PooledNettyRoutingFilter {
+
+        BenchmarkRoutingFilter(HttpClient defaultClient, UpstreamProperties upstreamProperties) {
+            super(defaultClient, headersFilters(), new HttpClientProperties(), List.of(), upstreamProperties);
+        }
+
+        HttpClient clientFor(Route route) {
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(route.getUri().toString()));
+            return getHttpClient(route, exchange);
+        }
+
+        private static ObjectProvider<List<HttpHeadersFilter>> headersFilters() {
+            return new DefaultListableBeanFactory()
+                    .getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class));
+        }
+    }
+}
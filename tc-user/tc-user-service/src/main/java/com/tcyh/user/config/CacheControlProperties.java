@@ -0,0 +1,24 @@
+package com.tcyh.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 响应缓存头配置属性，路径为网关去掉 /api 前缀后的路径
+ *
+ * @param privatePaths 按用户区分的可缓存GET路径，响应带 {@code Cache-Control: private, max-age}，
+ *                     由网关 ResponseCache 过滤器按用户缓存
+ * @param publicPaths  与用户无关的可缓存GET路径，响应带 {@code Cache-Control: public, max-age}
+ * @param maxAge       可缓存响应的 max-age
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.user.cache-control")
+public record CacheControlProperties(@DefaultValue("/user/**") List<String> privatePaths,
+                                     @DefaultValue("/public/**") List<String> publicPaths,
+                                     @DefaultValue("60s") Duration maxAge) {
+
+}
@@ -0,0 +1,24 @@
+package com.tcyh.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 登录凭证查询缓存配置属性
+ *
+ * @param enabled     是否启用
+ * @param maximumSize 最多缓存的登录标识数
+ * @param ttl         查到用户时的缓存时长，失效广播丢失时其他实例的修改最多延迟这么久生效
+ * @param negativeTtl 查不到用户时的缓存时长，失效广播丢失时其他实例注册的新用户最多延迟这么久可以登录
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.user.credential-cache")
+public record CredentialCacheProperties(@DefaultValue("true") Boolean enabled,
+                                        @DefaultValue("10000") Integer maximumSize,
+                                        @DefaultValue("60s") Duration ttl,
+                                        @DefaultValue("5s") Duration negativeTtl) {
+
+}
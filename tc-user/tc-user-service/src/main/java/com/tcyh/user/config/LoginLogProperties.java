@@ -0,0 +1,24 @@
+package com.tcyh.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 登录日志异步写入配置属性
+ *
+ * @param queueCapacity   待写入队列容量，队列满时丢弃新的登录日志
+ * @param batchSize       每批写入的最大条数
+ * @param flushInterval   后台线程两次写入之间的间隔
+ * @param shutdownTimeout 停机时等待写入线程结束的最长时间，之后由停机线程写完剩余日志
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.user.login-log")
+public record LoginLogProperties(@DefaultValue("10000") Integer queueCapacity,
+                                 @DefaultValue("500") Integer batchSize,
+                                 @DefaultValue("1s") Duration flushInterval,
+                                 @DefaultValue("10s") Duration shutdownTimeout) {
+
+}
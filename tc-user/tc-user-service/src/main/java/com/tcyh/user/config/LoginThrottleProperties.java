@@ -0,0 +1,26 @@
+package com.tcyh.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 登录限制配置属性
+ *
+ * @param maxFailures    滑动窗口内允许的密码错误次数，达到后锁定账号
+ * @param failureWindow  密码错误次数的滑动窗口长度
+ * @param lockDuration   账号锁定时长
+ * @param maxIpAttempts  单个IP在固定窗口内允许的登录尝试次数，0 表示不限制
+ * @param ipWindow       IP登录尝试次数的固定窗口长度
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.user.login-throttle")
+public record LoginThrottleProperties(@DefaultValue("5") Integer maxFailures,
+                                      @DefaultValue("15m") Duration failureWindow,
+                                      @DefaultValue("30m") Duration lockDuration,
+                                      @DefaultValue("100") Integer maxIpAttempts,
+                                      @DefaultValue("1m") Duration ipWindow) {
+
+}
@@ -0,0 +1,30 @@
+package com.tcyh.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 密码哈希配置属性
+ *
+ * @param algorithm           新密码使用的哈希算法标识
+ * @param iterations          PBKDF2 迭代次数，按目标耗时用 PasswordHashCalibration 标定
+ * @param saltLength          盐值字节数
+ * @param keyLength           哈希字节数
+ * @param hashThreads         密码哈希线程数，0 表示CPU核数
+ * @param hashQueueCapacity   等待计算的哈希任务上限，超出时拒绝登录/注册请求
+ * @param hashTimeout         等待一次哈希计算（含排队）的最长时间
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.user.password")
+public record PasswordProperties(@DefaultValue("pbkdf2-sha256") String algorithm,
+                                 @DefaultValue("310000") Integer iterations,
+                                 @DefaultValue("16") Integer saltLength,
+                                 @DefaultValue("32") Integer keyLength,
+                                 @DefaultValue("0") Integer hashThreads,
+                                 @DefaultValue("64") Integer hashQueueCapacity,
+                                 @DefaultValue("5s") Duration hashTimeout) {
+
+}
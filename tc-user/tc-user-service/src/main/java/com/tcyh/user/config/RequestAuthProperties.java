@@ -0,0 +1,27 @@
+package com.tcyh.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 请求认证配置属性
+ *
+ * @param trustedGateways   可信网关的IP或CIDR，来自这些地址且带 X-Gateway 头的请求直接使用
+ *                          网关写入的 X-User-Id/X-Username 与 X-Client-Ip，为空时只认JWT，
+ *                          客户端IP取连接对端地址
+ * @param statusCheck       是否检查用户状态，关闭时认证完全无状态，禁用账号要等token过期才失效
+ * @param statusCacheTtl    用户状态本地缓存时长，即禁用账号最长多久后被拒绝
+ * @param statusCacheSize   用户状态本地缓存的最大用户数
+ * @author fp
+ * @since 2025-09-17
+ */
+@ConfigurationProperties(prefix = "tc.user.auth")
+public record RequestAuthProperties(@DefaultValue List<String> trustedGateways,
+                                    @DefaultValue("true") Boolean statusCheck,
+                                    @DefaultValue("30s") Duration statusCacheTtl,
+                                    @DefaultValue("10000") Integer statusCacheSize) {
+
+}
@@ -1,5 +1,6 @@
 package com.tcyh.user.config;
 
+import com.tcyh.user.security.CacheControlFilter;
 import com.tcyh.user.security.JwtAuthenticationEntryPoint;
 import com.tcyh.user.security.JwtAuthenticationFilter;
 import com.tcyh.user.security.JwtAuthenticationProvider;
@@ -18,6 +19,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriterFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -39,6 +41,7 @@ public class SecurityConfig {
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationProvider jwtAuthenticationProvider;
+    private final CacheControlFilter cacheControlFilter;
 
     /**
      * 密码编码器
@@ -81,6 +84,9 @@ public class SecurityConfig {
         http
             // 禁用CSRF
             .csrf(AbstractHttpConfigurer::disable)
+            // 缓存头由 CacheControlFilter 按路径写入，可缓存的GET不再带默认的 no-store
+            .headers(headers -> headers.cacheControl(cacheControl -> cacheControl.disable()))
+            .addFilterBefore(cacheControlFilter, HeaderWriterFilter.class)
             // 启用CORS
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             // 配置异常处理
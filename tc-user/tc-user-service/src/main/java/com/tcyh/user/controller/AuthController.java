@@ -4,6 +4,7 @@ import com.tcyh.common.resp.RestResp;
 import com.tcyh.user.dto.LoginRequest;
 import com.tcyh.user.dto.LoginResponse;
 import com.tcyh.user.dto.RegisterRequest;
+import com.tcyh.user.security.TrustedGatewayMatcher;
 import com.tcyh.user.service.AuthService;
 import com.tcyh.user.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -31,13 +32,15 @@ public class AuthController {
 
     private final JwtUtil jwtUtil;
 
+    private final TrustedGatewayMatcher trustedGatewayMatcher;
+
     @PostMapping("/login")
     @Operation(summary = "用户登录", description = "支持用户名/手机号/邮箱登录")
     public RestResp<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest,
                                          HttpServletRequest request) {
         try {
-            // 获取客户端IP
-            String clientIp = getClientIp(request);
+            // 获取客户端IP，只采信可信网关写入的IP
+            String clientIp = trustedGatewayMatcher.clientIp(request);
             loginRequest.setLoginIp(clientIp);
             
             // 获取User-Agent作为设备信息
@@ -117,21 +120,4 @@ public class AuthController {
             return RestResp.ok(false);
         }
     }
-
-    /**
-     * 获取客户端真实IP
-     */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
 }
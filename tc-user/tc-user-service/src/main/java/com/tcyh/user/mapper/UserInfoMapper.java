@@ -2,6 +2,7 @@ package com.tcyh.user.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.tcyh.user.entity.UserInfo;
+import com.tcyh.user.util.LoginIdentifierType;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -37,4 +38,13 @@ public interface UserInfoMapper extends BaseMapper<UserInfo> {
      * @return 用户信息
      */
     UserInfo selectByEmail(@Param("email") String email);
+
+    /**
+     * 根据登录标识查询用户信息，按标识类型只查询对应的索引列，一次查询完成
+     * 
+     * @param type       标识类型
+     * @param identifier 用户名/手机号/邮箱
+     * @return 用户信息
+     */
+    UserInfo selectByLoginIdentifier(@Param("type") LoginIdentifierType type, @Param("identifier") String identifier);
 }
@@ -0,0 +1,19 @@
+package com.tcyh.user.security;
+
+import java.security.Principal;
+
+/**
+ * 已认证用户 - 取自JWT声明或可信网关写入的请求头，不查库
+ *
+ * @param userId   用户ID
+ * @param username 用户名
+ * @author fp
+ * @since 2025-09-17
+ */
+public record AuthenticatedUser(Long userId, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
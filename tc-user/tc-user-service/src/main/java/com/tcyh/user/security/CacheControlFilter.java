@@ -0,0 +1,120 @@
+package com.tcyh.user.security;
+
+import com.tcyh.user.config.CacheControlProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 响应缓存头过滤器 - 替代Spring Security默认的 no-store 缓存头
+ * <p>
+ * 配置的可缓存路径上的GET请求写入 {@code private/public, max-age}，网关的 ResponseCache 与 Coalesce
+ * 过滤器据此缓存或共享响应；其余请求与可缓存路径上的非200响应仍写入 no-store，与Spring Security默认一致。
+ * 控制器可自行设置 Cache-Control 覆盖。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Component
+@EnableConfigurationProperties(CacheControlProperties.class)
+public class CacheControlFilter extends OncePerRequestFilter {
+
+    private static final String NO_STORE = "no-cache, no-store, max-age=0, must-revalidate";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> privatePaths;
+    private final List<String> publicPaths;
+    private final String privateCacheControl;
+    private final String publicCacheControl;
+
+    public CacheControlFilter(CacheControlProperties properties) {
+        this.privatePaths = properties.privatePaths();
+        this.publicPaths = properties.publicPaths();
+        long maxAgeSeconds = properties.maxAge().toSeconds();
+        this.privateCacheControl = "private, max-age=" + maxAgeSeconds;
+        this.publicCacheControl = "public, max-age=" + maxAgeSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String cacheControl = resolveCacheControl(request);
+        if (cacheControl == null) {
+            noStore(response);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        filterChain.doFilter(request, new CacheableResponse(response));
+    }
+
+    /**
+     * 可缓存请求的 Cache-Control，不可缓存时返回 null
+     */
+    private String resolveCacheControl(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return null;
+        }
+        String path = request.getServletPath();
+        if (matches(privatePaths, path)) {
+            return privateCacheControl;
+        }
+        return matches(publicPaths, path) ? publicCacheControl : null;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void noStore(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, NO_STORE);
+        response.setHeader(HttpHeaders.PRAGMA, "no-cache");
+        response.setHeader(HttpHeaders.EXPIRES, "0");
+    }
+
+    /**
+     * 可缓存路径上的响应，状态码不是200时改回 no-store，避免缓存错误响应
+     */
+    private static final class CacheableResponse extends HttpServletResponseWrapper {
+
+        CacheableResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            super.setStatus(sc);
+            if (sc != SC_OK) {
+                noStore(this);
+            }
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            noStore(this);
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            noStore(this);
+            super.sendError(sc);
+        }
+    }
+}
@@ -1,81 +1,121 @@
 package com.tcyh.user.security;
 
 import com.tcyh.user.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
- * JWT认证过滤器
- * 
+ * JWT认证过滤器 - 无状态认证，不按请求查库
+ * <p>
+ * 身份来源按顺序：
+ * <ol>
+ *     <li>来自可信网关（IP在 tc.user.auth.trusted-gateways 内且带 X-Gateway 头）的请求，
+ *     直接使用网关验签后写入的 X-User-Id/X-Username</li>
+ *     <li>否则对 Authorization 中的JWT验签一次，从声明中取用户ID与用户名</li>
+ * </ol>
+ * 认证主体为 {@link AuthenticatedUser}；账号是否被禁用由 {@link UserStatusCache} 按用户ID短暂缓存判断。
+ *
  * @author fp
  * @since 2025-09-17
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USERNAME_HEADER = "X-Username";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+    private final TrustedGatewayMatcher trustedGatewayMatcher;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserStatusCache userStatusCache,
+                                   TrustedGatewayMatcher trustedGatewayMatcher) {
+        this.jwtUtil = jwtUtil;
+        this.userStatusCache = userStatusCache;
+        this.trustedGatewayMatcher = trustedGatewayMatcher;
+    }
 
     @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        
+
         try {
-            String jwt = getJwtFromRequest(request);
-            
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt, getUsernameFromToken(jwt))) {
-                String username = getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
+            AuthenticatedUser user = fromGateway(request);
+            if (user == null) {
+                user = fromToken(request);
+            }
+
+            if (user != null && userStatusCache.isActive(user.userId())) {
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(user, null, AUTHORITIES);
+                authentication.setDetails(detailsSource.buildDetails(request));
+
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+            } else if (user != null) {
+                log.warn("用户不存在或已被禁用: userId={}", user.userId());
             }
         } catch (Exception e) {
             log.error("JWT认证失败: {}", e.getMessage());
         }
-        
+
         filterChain.doFilter(request, response);
     }
 
     /**
-     * 从请求中获取JWT token
+     * 从可信网关写入的请求头中获取用户，非可信来源返回 null
      */
-    private String getJwtFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+    private AuthenticatedUser fromGateway(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        String username = request.getHeader(USERNAME_HEADER);
+        if (!StringUtils.hasText(userId) || !StringUtils.hasText(username)
+                || !trustedGatewayMatcher.isTrusted(request)) {
+            return null;
+        }
+        try {
+            return new AuthenticatedUser(Long.valueOf(userId), username);
+        } catch (NumberFormatException e) {
+            log.warn("网关用户ID格式错误: {}", userId);
+            return null;
         }
-        return null;
     }
 
     /**
-     * 从token中获取用户名
+     * 验签一次并从声明中获取用户，无token或token无效时返回 null
      */
-    private String getUsernameFromToken(String token) {
-        try {
-            return jwtUtil.getUsernameFromToken(token);
-        } catch (Exception e) {
-            log.error("从token中获取用户名失败: {}", e.getMessage());
+    private AuthenticatedUser fromToken(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        Claims claims = jwtUtil.parseClaims(bearerToken.substring(BEARER_PREFIX.length()));
+        if (claims == null) {
+            return null;
+        }
+        Object userId = claims.get("userId");
+        String username = claims.getSubject();
+        if (userId == null || !StringUtils.hasText(username)) {
+            log.warn("Token信息不完整: userId={}, username={}", userId, username);
             return null;
         }
+        return new AuthenticatedUser(Long.valueOf(userId.toString()), username);
     }
 }
@@ -0,0 +1,212 @@
+package com.tcyh.user.security;
+
+import com.tcyh.user.config.LoginThrottleProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 登录限制 - 基于Redis Lua脚本的原子计数，无需分布式锁
+ * <p>
+ * 每次判断或计数都是一条原子脚本，多个设备同时登录同一账号时互不等待，进程崩溃也不会遗留锁：
+ * <ul>
+ *     <li>IP登录尝试：INCR 与首次 PEXPIRE 在同一脚本中执行的固定窗口计数，限制单个IP遍历大量账号</li>
+ *     <li>密码错误：以有序集合记录错误时间的滑动窗口计数，达到阈值时写入带过期时间的锁定标记并清空计数</li>
+ *     <li>锁定检查与登录成功后的清零各为一条命令</li>
+ * </ul>
+ * 并发的错误登录可能在锁定生效前多完成几次密码校验，但计数本身不会丢失，锁定一定会生效。
+ * 密码错误计数与锁定按账号键记录，见 {@link #accountKey(Long, String)}：已存在的用户按用户ID，
+ * 同一账号以用户名、手机号、邮箱或大小写不同的写法登录共用一份计数。
+ * Redis不可用时放行并记录错误日志，避免限制组件导致登录整体不可用。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(LoginThrottleProperties.class)
+public class LoginThrottle {
+
+    private static final String FAILURES_PREFIX = "login:failures:";
+    private static final String LOCKED_PREFIX = "login:locked:";
+    private static final String IP_ATTEMPTS_PREFIX = "login:ip:";
+    private static final String NO_SCRIPT = "NOSCRIPT";
+
+    /**
+     * KEYS[1] 计数键；ARGV[1] 窗口毫秒数。返回计数后的值
+     */
+    private static final String INCR_WITH_EXPIRE_SCRIPT = """
+            local count = redis.call('INCR', KEYS[1])
+            if count == 1 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            end
+            return count
+            """;
+
+    /**
+     * KEYS[1] 错误记录有序集合，KEYS[2] 锁定标记；
+     * ARGV[1] 当前时间，ARGV[2] 窗口毫秒数，ARGV[3] 阈值，ARGV[4] 锁定毫秒数，ARGV[5] 本次错误的唯一成员。
+     * 返回窗口内的错误次数，达到阈值时已写入锁定标记
+     */
+    private static final String RECORD_FAILURE_SCRIPT = """
+            local now = tonumber(ARGV[1])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - tonumber(ARGV[2]))
+            redis.call('ZADD', KEYS[1], now, ARGV[5])
+            local count = redis.call('ZCARD', KEYS[1])
+            if count >= tonumber(ARGV[3]) then
+                redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[4])
+                redis.call('DEL', KEYS[1])
+            else
+                redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return count
+            """;
+
+    private static final String INCR_WITH_EXPIRE_SHA = sha1(INCR_WITH_EXPIRE_SCRIPT);
+    private static final String RECORD_FAILURE_SHA = sha1(RECORD_FAILURE_SCRIPT);
+
+    private final RedissonClient redissonClient;
+    private final LoginThrottleProperties properties;
+
+    public LoginThrottle(RedissonClient redissonClient, LoginThrottleProperties properties) {
+        this.redissonClient = redissonClient;
+        this.properties = properties;
+    }
+
+    /**
+     * 记录一次来自该IP的登录尝试
+     *
+     * @param ip 客户端IP，为空时不限制
+     * @return 未超过IP尝试次数限制时返回 true
+     */
+    public boolean tryAcquireIp(String ip) {
+        if (!StringUtils.hasText(ip) || properties.maxIpAttempts() <= 0) {
+            return true;
+        }
+        Long count = evalScript(INCR_WITH_EXPIRE_SHA, INCR_WITH_EXPIRE_SCRIPT,
+                List.of(IP_ATTEMPTS_PREFIX + ip), properties.ipWindow().toMillis());
+        return count == null || count <= properties.maxIpAttempts();
+    }
+
+    /**
+     * 账号键：用户存在时为用户ID，不存在时为去掉首尾空白并转小写的登录标识
+     *
+     * @param userId     解析出的用户ID，用户不存在时为 null
+     * @param identifier 登录标识
+     */
+    public static String accountKey(Long userId, String identifier) {
+        if (userId != null) {
+            return "id:" + userId;
+        }
+        return "name:" + (identifier == null ? "" : identifier.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 账号是否处于锁定状态
+     *
+     * @param username 账号键，见 {@link #accountKey(Long, String)}
+     */
+    public boolean isLocked(String username) {
+        try {
+            return redissonClient.getBucket(lockedKey(username), StringCodec.INSTANCE).isExists();
+        } catch (RedisException e) {
+            log.error("检查账号锁定状态失败，放行: username={}, error={}", username, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 记录一次密码错误
+     *
+     * @param username 账号键，见 {@link #accountKey(Long, String)}
+     * @return 本次错误后账号是否被锁定
+     */
+    public boolean recordFailure(String username) {
+        long now = System.currentTimeMillis();
+        String member = now + ":" + ThreadLocalRandom.current().nextLong();
+        Long count = evalScript(RECORD_FAILURE_SHA, RECORD_FAILURE_SCRIPT,
+                List.of(failuresKey(username), lockedKey(username)),
+                now, properties.failureWindow().toMillis(), properties.maxFailures(),
+                properties.lockDuration().toMillis(), member);
+        return count != null && count >= properties.maxFailures();
+    }
+
+    /**
+     * 登录成功后清除密码错误记录
+     *
+     * @param username 账号键，见 {@link #accountKey(Long, String)}
+     */
+    public void reset(String username) {
+        try {
+            redissonClient.getKeys().delete(failuresKey(username));
+        } catch (RedisException e) {
+            log.error("清除密码错误记录失败: username={}, error={}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * 解除账号锁定并清除错误记录
+     *
+     * @param username 账号键，见 {@link #accountKey(Long, String)}
+     */
+    public void unlock(String username) {
+        redissonClient.getKeys().delete(lockedKey(username), failuresKey(username));
+    }
+
+    /**
+     * 按SHA执行脚本，Redis脚本缓存中没有时（首次执行、重启或 SCRIPT FLUSH）改用EVAL，同时载入缓存
+     */
+    private Long evalScript(String sha, String script, List<Object> keys, Object... args) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        Object[] values = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = String.valueOf(args[i]);
+        }
+        try {
+            try {
+                return rScript.evalSha(RScript.Mode.READ_WRITE, sha, RScript.ReturnType.INTEGER, keys, values);
+            } catch (RedisException e) {
+                if (e.getMessage() == null || !e.getMessage().contains(NO_SCRIPT)) {
+                    throw e;
+                }
+                return rScript.eval(RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, keys, values);
+            }
+        } catch (RedisException e) {
+            log.error("登录限制脚本执行失败，放行: keys={}, error={}", keys, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 错误记录与锁定标记使用相同的哈希标签，集群模式下落在同一槽位，可在同一脚本中访问
+     */
+    private static String failuresKey(String username) {
+        return FAILURES_PREFIX + "{" + username + "}";
+    }
+
+    private static String lockedKey(String username) {
+        return LOCKED_PREFIX + "{" + username + "}";
+    }
+
+    private static String sha1(String script) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
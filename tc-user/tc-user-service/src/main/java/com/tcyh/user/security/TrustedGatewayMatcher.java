@@ -0,0 +1,62 @@
+package com.tcyh.user.security;
+
+import com.tcyh.user.config.RequestAuthProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 可信网关判断 - 只有来自 tc.user.auth.trusted-gateways 且带 X-Gateway 头的请求才读取网关写入的头
+ * <p>
+ * 客户端IP取网关解析后写入的 X-Client-Ip，其它来源一律使用连接对端地址，
+ * 客户端自带的 X-Forwarded-For/X-Real-IP 不会被采信。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Component
+@EnableConfigurationProperties(RequestAuthProperties.class)
+public class TrustedGatewayMatcher {
+
+    private static final String GATEWAY_HEADER = "X-Gateway";
+    private static final String CLIENT_IP_HEADER = "X-Client-Ip";
+
+    private final List<IpAddressMatcher> trustedGateways;
+
+    public TrustedGatewayMatcher(RequestAuthProperties properties) {
+        this.trustedGateways = properties.trustedGateways().stream()
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * 请求是否由可信网关转发
+     */
+    public boolean isTrusted(HttpServletRequest request) {
+        if (trustedGateways.isEmpty() || request.getHeader(GATEWAY_HEADER) == null) {
+            return false;
+        }
+        String remoteAddr = request.getRemoteAddr();
+        for (IpAddressMatcher matcher : trustedGateways) {
+            if (matcher.matches(remoteAddr)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 客户端IP：可信网关转发时取 X-Client-Ip，否则为连接对端地址
+     */
+    public String clientIp(HttpServletRequest request) {
+        String clientIp = request.getHeader(CLIENT_IP_HEADER);
+        if (StringUtils.hasText(clientIp) && isTrusted(request)) {
+            return clientIp.trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
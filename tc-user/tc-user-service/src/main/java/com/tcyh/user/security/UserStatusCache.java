@@ -0,0 +1,66 @@
+package com.tcyh.user.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tcyh.user.config.RequestAuthProperties;
+import com.tcyh.user.entity.UserInfo;
+import com.tcyh.user.service.UserInfoService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 用户状态本地缓存 - 认证时判断账号是否可用
+ * <p>
+ * 按用户ID缓存状态，每个用户每个缓存周期最多按主键查询一次 status 列；
+ * 禁用账号在缓存过期后生效。用户不存在同样缓存，按不可用处理。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Component
+@EnableConfigurationProperties(RequestAuthProperties.class)
+public class UserStatusCache {
+
+    private static final int STATUS_NORMAL = 1;
+
+    private final UserInfoService userInfoService;
+    private final RequestAuthProperties properties;
+
+    /**
+     * 用户ID到状态，用户不存在时为 Optional.empty()
+     */
+    private final Cache<Long, Optional<Integer>> statuses;
+
+    public UserStatusCache(UserInfoService userInfoService, RequestAuthProperties properties) {
+        this.userInfoService = userInfoService;
+        this.properties = properties;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.statusCacheSize())
+                .expireAfterWrite(properties.statusCacheTtl())
+                .build();
+    }
+
+    /**
+     * 用户是否存在且状态正常，未开启状态检查时始终返回 true
+     *
+     * @param userId 用户ID
+     * @return 是否可用
+     */
+    public boolean isActive(Long userId) {
+        if (!Boolean.TRUE.equals(properties.statusCheck())) {
+            return true;
+        }
+        return statuses.get(userId, this::loadStatus)
+                .map(status -> status == STATUS_NORMAL)
+                .orElse(false);
+    }
+
+    private Optional<Integer> loadStatus(Long userId) {
+        LambdaQueryWrapper<UserInfo> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(UserInfo::getStatus).eq(UserInfo::getId, userId);
+        return Optional.ofNullable(userInfoService.getOne(wrapper)).map(UserInfo::getStatus);
+    }
+}
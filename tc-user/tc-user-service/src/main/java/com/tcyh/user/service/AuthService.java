@@ -55,7 +55,7 @@ public interface AuthService {
     boolean validateToken(String token);
 
     /**
-     * 记录登录日志
+     * 记录登录日志，异步批量写入，不等待日志落库
      * 
      * @param userId 用户ID
      * @param loginIp 登录IP
@@ -35,6 +35,14 @@ public interface UserInfoService extends IService<UserInfo> {
      */
     UserInfo getByEmail(String email);
 
+    /**
+     * 根据登录标识（用户名/手机号/邮箱）查询用户信息，结果在本地短暂缓存
+     * 
+     * @param identifier 用户名/手机号/邮箱
+     * @return 用户信息，不存在时返回 null
+     */
+    UserInfo getByLoginIdentifier(String identifier);
+
     /**
      * 创建用户
      * 
@@ -0,0 +1,21 @@
+package com.tcyh.user.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.tcyh.user.entity.UserLoginLog;
+
+/**
+ * 用户登录日志表 服务类
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public interface UserLoginLogService extends IService<UserLoginLog> {
+
+    /**
+     * 提交登录日志，由后台线程批量写入，不阻塞调用方
+     *
+     * @param loginLog 登录日志
+     * @return 是否进入待写入队列，队列已满时返回 false 且日志被丢弃
+     */
+    boolean submit(UserLoginLog loginLog);
+}
@@ -1,5 +1,6 @@
 package com.tcyh.user.service.impl;
 
+import com.tcyh.common.constant.CacheConsts;
 import com.tcyh.common.constant.ErrorCodeEnum;
 import com.tcyh.config.exception.BusinessException;
 import com.tcyh.user.dto.LoginRequest;
@@ -7,17 +8,18 @@ import com.tcyh.user.dto.LoginResponse;
 import com.tcyh.user.dto.RegisterRequest;
 import com.tcyh.user.entity.UserInfo;
 import com.tcyh.user.entity.UserLoginLog;
-import com.tcyh.user.mapper.UserLoginLogMapper;
+import com.tcyh.user.security.LoginThrottle;
 import com.tcyh.user.service.AuthService;
 import com.tcyh.user.service.UserInfoService;
+import com.tcyh.user.service.UserLoginLogService;
+import com.tcyh.user.util.GatewayCacheInvalidator;
 import com.tcyh.user.util.JwtUtil;
 import com.tcyh.user.util.PasswordUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RAtomicLong;
 import org.redisson.api.RBucket;
-import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,100 +40,80 @@ import java.util.concurrent.TimeUnit;
 public class AuthServiceImpl implements AuthService {
 
     private final UserInfoService userInfoService;
-    private final UserLoginLogMapper userLoginLogMapper;
+    private final UserLoginLogService userLoginLogService;
     private final JwtUtil jwtUtil;
     private final PasswordUtil passwordUtil;
     private final RedissonClient redissonClient;
+    private final LoginThrottle loginThrottle;
+    private final GatewayCacheInvalidator gatewayCacheInvalidator;
 
-    private static final String LOGIN_LOCK_PREFIX = "login:lock:";
-    private static final String LOGIN_COUNT_PREFIX = "login:count:";
-    private static final String BLACKLIST_PREFIX = "blacklist:";
-    private static final int MAX_LOGIN_ATTEMPTS = 5;
-    private static final int LOCK_TIME_MINUTES = 30;
-
+    /**
+     * 登录只读库，密码哈希升级在 updateUser 自身的事务中提交，升级失败不回滚登录
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public LoginResponse login(LoginRequest loginRequest) {
         String username = loginRequest.getUsername();
         String password = loginRequest.getPassword();
-        
-        // 分布式锁防止暴力破解
-        String lockKey = LOGIN_LOCK_PREFIX + username;
-        RLock lock = redissonClient.getLock(lockKey);
-        
-        try {
-            // 尝试获取锁，最多等待1秒，锁定30分钟
-            if (lock.tryLock(1, LOCK_TIME_MINUTES, TimeUnit.MINUTES)) {
-                try {
-                    // 检查是否在黑名单中
-                    if (isInBlacklist(username)) {
-                        throw new BusinessException(ErrorCodeEnum.USER_LOCK_AUTH_FAIL);
-                    }
-                    
-                    // 检查登录次数
-                    if (isLoginAttemptsExceeded(username)) {
-                        addToBlacklist(username);
-                        throw new BusinessException(ErrorCodeEnum.USER_LOGIN_MORE_FAIL);
-                    }
-                    
-                    // 查找用户
-                    UserInfo userInfo = findUserByUsername(username);
-                    if (userInfo == null) {
-                        incrementLoginAttempts(username);
-                        throw new BusinessException(ErrorCodeEnum.USER_PASSWORD_ERROR);
-                    }
-                    
-                    // 验证密码
-                    if (!passwordUtil.verifyPassword(password, userInfo.getSalt(), userInfo.getPassword())) {
-                        incrementLoginAttempts(username);
-                        throw new BusinessException(ErrorCodeEnum.USER_PASSWORD_ERROR);
-                    }
-                    
-                    // 检查用户状态
-                    if (userInfo.getStatus() != 1) {
-                        throw new BusinessException(ErrorCodeEnum.USER_IS_ENABLE_FAIL);
-                    }
-                    
-                    // 清除登录失败次数
-                    clearLoginAttempts(username);
-                    
-                    // 生成token
-                    String accessToken = jwtUtil.generateToken(userInfo.getId(), userInfo.getUsername());
-                    String refreshToken = jwtUtil.generateToken(userInfo.getId(), userInfo.getUsername());
-                    
-                    // 记录登录日志
-                    recordLoginLog(userInfo.getId(), loginRequest.getLoginIp(), 
-                                 loginRequest.getLoginDevice(), loginRequest.getLoginLocation());
-                    
-                    // 构建响应
-                    LoginResponse response = new LoginResponse();
-                    response.setAccessToken(accessToken);
-                    response.setRefreshToken(refreshToken);
-                    response.setExpiresIn(86400L); // 24小时
-                    response.setUserId(userInfo.getId());
-                    response.setUsername(userInfo.getUsername());
-                    response.setNickname(userInfo.getNickname());
-                    response.setAvatar(userInfo.getAvatar());
-                    response.setLoginTime(LocalDateTime.now());
-                    
-                    // 缓存用户信息
-                    cacheUserInfo(userInfo);
-                    
-                    return response;
-                    
-                } finally {
-                    lock.unlock();
-                }
-            } else {
-                throw new RuntimeException("系统繁忙，请稍后再试");
+
+        // 限制单个IP的登录尝试次数，防止遍历账号
+        if (!loginThrottle.tryAcquireIp(loginRequest.getLoginIp())) {
+            throw new BusinessException(ErrorCodeEnum.USER_REQ_MANY);
+        }
+
+        // 查找用户，错误计数与锁定按用户ID记录，不同登录标识或大小写写法共用一份
+        UserInfo userInfo = userInfoService.getByLoginIdentifier(username);
+        String accountKey = LoginThrottle.accountKey(userInfo != null ? userInfo.getId() : null, username);
+
+        // 检查账号是否因密码错误次数过多被锁定
+        if (loginThrottle.isLocked(accountKey)) {
+            throw new BusinessException(ErrorCodeEnum.USER_LOCK_AUTH_FAIL);
+        }
+
+        // 验证密码，用户不存在时同样计算一次哈希，耗时不暴露账号是否存在
+        boolean matched = userInfo != null
+                ? passwordUtil.verifyPassword(password, userInfo.getSalt(), userInfo.getPassword())
+                : passwordUtil.verifyPassword(password, null, null);
+        if (!matched) {
+            if (loginThrottle.recordFailure(accountKey)) {
+                throw new BusinessException(ErrorCodeEnum.USER_LOGIN_MORE_FAIL);
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("登录被中断");
-        } catch (Exception e) {
-            log.error("用户登录失败: {}", e.getMessage());
-            throw e;
+            throw new BusinessException(ErrorCodeEnum.USER_PASSWORD_ERROR);
+        }
+
+        // 检查用户状态
+        if (userInfo.getStatus() != 1) {
+            throw new BusinessException(ErrorCodeEnum.USER_IS_ENABLE_FAIL);
         }
+
+        // 清除密码错误记录
+        loginThrottle.reset(accountKey);
+
+        // 旧格式或低代价的密码哈希用本次的明文升级
+        rehashIfNeeded(userInfo, password);
+
+        // 生成token
+        String accessToken = jwtUtil.generateToken(userInfo.getId(), userInfo.getUsername());
+        String refreshToken = jwtUtil.generateToken(userInfo.getId(), userInfo.getUsername());
+
+        // 记录登录日志（异步批量写入）
+        recordLoginLog(userInfo.getId(), loginRequest.getLoginIp(),
+                     loginRequest.getLoginDevice(), loginRequest.getLoginLocation());
+
+        // 构建响应
+        LoginResponse response = new LoginResponse();
+        response.setAccessToken(accessToken);
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(86400L); // 24小时
+        response.setUserId(userInfo.getId());
+        response.setUsername(userInfo.getUsername());
+        response.setNickname(userInfo.getNickname());
+        response.setAvatar(userInfo.getAvatar());
+        response.setLoginTime(LocalDateTime.now());
+
+        // 缓存用户信息
+        cacheUserInfo(userInfo);
+
+        return response;
     }
 
     @Override
@@ -169,11 +151,9 @@ public class AuthServiceImpl implements AuthService {
         userInfo.setStatus(1); // 正常状态
         userInfo.setIsVerified(0); // 未认证
         
-        // 生成盐值和加密密码
-        String salt = passwordUtil.generateSalt();
-        String encryptedPassword = passwordUtil.encryptPassword(registerRequest.getPassword(), salt);
-        userInfo.setSalt(salt);
-        userInfo.setPassword(encryptedPassword);
+        // 加密密码，盐值内嵌在哈希中，salt 列仅旧格式使用
+        userInfo.setSalt("");
+        userInfo.setPassword(passwordUtil.hashPassword(registerRequest.getPassword()));
         
         return userInfoService.createUser(userInfo);
     }
@@ -197,8 +177,12 @@ public class AuthServiceImpl implements AuthService {
             // 将token加入黑名单
             String username = jwtUtil.getUsernameFromToken(token);
             if (StringUtils.hasText(username)) {
-                RBucket<String> blacklistBucket = redissonClient.getBucket(BLACKLIST_PREFIX + token);
+                RBucket<String> blacklistBucket = redissonClient.getBucket(CacheConsts.TOKEN_BLACKLIST_PREFIX + token);
                 blacklistBucket.set(username, 86400, TimeUnit.SECONDS);
+                // 通知网关更新本地黑名单
+                redissonClient.getTopic(CacheConsts.TOKEN_BLACKLIST_TOPIC, StringCodec.INSTANCE).publish(token);
+                // 清除网关为该用户缓存的响应，登出后不再返回登录态下的缓存
+                gatewayCacheInvalidator.invalidate(jwtUtil.getUserIdFromToken(token));
             }
             return true;
         } catch (Exception e) {
@@ -211,7 +195,7 @@ public class AuthServiceImpl implements AuthService {
     public boolean validateToken(String token) {
         try {
             // 检查是否在黑名单中
-            RBucket<String> blacklistBucket = redissonClient.getBucket(BLACKLIST_PREFIX + token);
+            RBucket<String> blacklistBucket = redissonClient.getBucket(CacheConsts.TOKEN_BLACKLIST_PREFIX + token);
             if (blacklistBucket.isExists()) {
                 return false;
             }
@@ -226,76 +210,33 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public void recordLoginLog(Long userId, String loginIp, String loginDevice, String loginLocation) {
-        try {
-            UserLoginLog loginLog = new UserLoginLog();
-            loginLog.setUserId(userId);
-            loginLog.setLoginIp(loginIp);
-            loginLog.setLoginDevice(loginDevice);
-            loginLog.setLoginLocation(loginLocation);
-            loginLog.setLoginTime(LocalDateTime.now());
-            
-            userLoginLogMapper.insert(loginLog);
-        } catch (Exception e) {
-            log.error("记录登录日志失败: {}", e.getMessage());
-        }
+        UserLoginLog loginLog = new UserLoginLog();
+        loginLog.setUserId(userId);
+        loginLog.setLoginIp(loginIp);
+        loginLog.setLoginDevice(loginDevice);
+        loginLog.setLoginLocation(loginLocation);
+        loginLog.setLoginTime(LocalDateTime.now());
+
+        userLoginLogService.submit(loginLog);
     }
 
     /**
-     * 根据用户名查找用户
+     * 登录成功后升级密码哈希，失败不影响本次登录
      */
-    private UserInfo findUserByUsername(String username) {
-        UserInfo userInfo = userInfoService.getByUsername(username);
-        if (userInfo == null) {
-            userInfo = userInfoService.getByPhone(username);
+    private void rehashIfNeeded(UserInfo userInfo, String password) {
+        if (!passwordUtil.needsRehash(userInfo.getPassword())) {
+            return;
         }
-        if (userInfo == null) {
-            userInfo = userInfoService.getByEmail(username);
+        try {
+            UserInfo update = new UserInfo();
+            update.setId(userInfo.getId());
+            update.setPassword(passwordUtil.hashPassword(password));
+            update.setSalt("");
+            userInfoService.updateUser(update);
+            log.info("用户密码哈希已升级: userId={}", userInfo.getId());
+        } catch (Exception e) {
+            log.error("升级密码哈希失败: userId={}, error={}", userInfo.getId(), e.getMessage());
         }
-        return userInfo;
-    }
-
-    /**
-     * 检查是否在黑名单中
-     */
-    private boolean isInBlacklist(String username) {
-        RBucket<String> blacklistBucket = redissonClient.getBucket(BLACKLIST_PREFIX + username);
-        return blacklistBucket.isExists();
-    }
-
-    /**
-     * 检查登录尝试次数是否超限
-     */
-    private boolean isLoginAttemptsExceeded(String username) {
-        String countKey = LOGIN_COUNT_PREFIX + username;
-        RAtomicLong counter = redissonClient.getAtomicLong(countKey);
-        return counter.get() >= MAX_LOGIN_ATTEMPTS;
-    }
-
-    /**
-     * 增加登录尝试次数
-     */
-    private void incrementLoginAttempts(String username) {
-        String countKey = LOGIN_COUNT_PREFIX + username;
-        RAtomicLong counter = redissonClient.getAtomicLong(countKey);
-        counter.incrementAndGet();
-        counter.expire(LOCK_TIME_MINUTES, TimeUnit.MINUTES);
-    }
-
-    /**
-     * 清除登录尝试次数
-     */
-    private void clearLoginAttempts(String username) {
-        String countKey = LOGIN_COUNT_PREFIX + username;
-        RAtomicLong counter = redissonClient.getAtomicLong(countKey);
-        counter.delete();
-    }
-
-    /**
-     * 添加到黑名单
-     */
-    private void addToBlacklist(String username) {
-        RBucket<String> blacklistBucket = redissonClient.getBucket(BLACKLIST_PREFIX + username);
-        blacklistBucket.set(username, LOCK_TIME_MINUTES, TimeUnit.MINUTES);
     }
 
     /**
@@ -2,27 +2,80 @@ package com.tcyh.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tcyh.common.constant.CacheConsts;
+import com.tcyh.user.config.CredentialCacheProperties;
 import com.tcyh.user.entity.UserInfo;
 import com.tcyh.user.mapper.UserInfoMapper;
 import com.tcyh.user.service.UserInfoService;
-import lombok.RequiredArgsConstructor;
+import com.tcyh.user.util.GatewayCacheInvalidator;
+import com.tcyh.user.util.LoginIdentifierType;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * 用户基础信息表 服务实现类
+ * <p>
+ * 登录时按标识类型一次查询用户，查询结果（包括查不到）按登录标识缓存在本地，
+ * 同一账号的重复登录与对不存在账号的反复尝试都不再访问数据库。
+ * 创建或更新用户时在事务提交后失效相关缓存，提交前并发的登录不会把旧数据重新缓存下来；
+ * 失效通过Redisson {@link RTopic} 广播，所有实例收到后清除本地条目，
+ * 本实例同时直接清除，广播失败时其他实例的缓存在过期后生效。
+ * 更新用户后同时清除网关为该用户缓存的响应。
  * 
  * @author fp
  * @since 2025-09-17
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
+@EnableConfigurationProperties(CredentialCacheProperties.class)
 public class UserInfoServiceImpl extends ServiceImpl<UserInfoMapper, UserInfo> implements UserInfoService {
 
+    private static final String ID_PREFIX = "id:";
+    private static final String IDENTIFIER_PREFIX = "identifier:";
+
     private final UserInfoMapper userInfoMapper;
+    private final CredentialCacheProperties credentialCacheProperties;
+    private final GatewayCacheInvalidator gatewayCacheInvalidator;
+    private final RedissonClient redissonClient;
+
+    /**
+     * 登录标识（小写）到用户信息，查不到用户时为 Optional.empty()
+     */
+    private final Cache<String, Optional<UserInfo>> credentialCache;
+
+    public UserInfoServiceImpl(UserInfoMapper userInfoMapper, CredentialCacheProperties credentialCacheProperties,
+                               GatewayCacheInvalidator gatewayCacheInvalidator, RedissonClient redissonClient) {
+        this.userInfoMapper = userInfoMapper;
+        this.credentialCacheProperties = credentialCacheProperties;
+        this.gatewayCacheInvalidator = gatewayCacheInvalidator;
+        this.redissonClient = redissonClient;
+        this.credentialCache = Caffeine.newBuilder()
+                .maximumSize(credentialCacheProperties.maximumSize())
+                .expireAfter(new CredentialExpiry(credentialCacheProperties))
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        RTopic topic = redissonClient.getTopic(CacheConsts.USER_CREDENTIAL_EVICT_TOPIC, StringCodec.INSTANCE);
+        topic.addListener(String.class, (channel, message) -> onEvicted(message));
+    }
 
     @Override
     public UserInfo getByUsername(String username) {
@@ -39,11 +92,24 @@ public class UserInfoServiceImpl extends ServiceImpl<UserInfoMapper, UserInfo> i
         return userInfoMapper.selectByEmail(email);
     }
 
+    @Override
+    public UserInfo getByLoginIdentifier(String identifier) {
+        if (!Boolean.TRUE.equals(credentialCacheProperties.enabled())) {
+            return selectByLoginIdentifier(identifier);
+        }
+        return credentialCache.get(cacheKey(identifier),
+                        key -> Optional.ofNullable(selectByLoginIdentifier(identifier)))
+                .orElse(null);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean createUser(UserInfo userInfo) {
         try {
-            return save(userInfo);
+            boolean saved = save(userInfo);
+            // 提交后清除新用户各个登录标识上“用户不存在”的缓存
+            afterCommit(() -> evictIdentifiers(userInfo));
+            return saved;
         } catch (Exception e) {
             log.error("创建用户失败: {}", e.getMessage());
             throw new RuntimeException("创建用户失败", e);
@@ -54,7 +120,13 @@ public class UserInfoServiceImpl extends ServiceImpl<UserInfoMapper, UserInfo> i
     @Transactional(rollbackFor = Exception.class)
     public boolean updateUser(UserInfo userInfo) {
         try {
-            return updateById(userInfo);
+            boolean updated = updateById(userInfo);
+            // 提交后再失效，避免提交前到达的GET把旧数据重新写入网关缓存
+            afterCommit(() -> {
+                evictUser(userInfo.getId());
+                gatewayCacheInvalidator.invalidate(userInfo.getId());
+            });
+            return updated;
         } catch (Exception e) {
             log.error("更新用户失败: {}", e.getMessage());
             throw new RuntimeException("更新用户失败", e);
@@ -81,4 +153,99 @@ public class UserInfoServiceImpl extends ServiceImpl<UserInfoMapper, UserInfo> i
         wrapper.eq(UserInfo::getEmail, email);
         return count(wrapper) > 0;
     }
+
+    private UserInfo selectByLoginIdentifier(String identifier) {
+        return userInfoMapper.selectByLoginIdentifier(LoginIdentifierType.of(identifier), identifier);
+    }
+
+    /**
+     * 数据库排序规则不区分大小写，缓存键统一转为小写
+     */
+    private static String cacheKey(String identifier) {
+        return identifier.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 在当前事务提交后执行，没有事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void evictIdentifiers(UserInfo userInfo) {
+        for (String identifier : new String[]{userInfo.getUsername(), userInfo.getPhone(), userInfo.getEmail()}) {
+            if (StringUtils.hasText(identifier)) {
+                String key = cacheKey(identifier);
+                credentialCache.invalidate(key);
+                publishEviction(IDENTIFIER_PREFIX + key);
+            }
+        }
+    }
+
+    /**
+     * 修改可能涉及用户名、手机号或邮箱，按用户ID清除该用户的所有缓存
+     */
+    private void evictUser(Long userId) {
+        if (userId != null) {
+            evictLocalUser(userId);
+            publishEviction(ID_PREFIX + userId);
+        }
+    }
+
+    private void evictLocalUser(Long userId) {
+        credentialCache.asMap().values().removeIf(cached -> cached.isPresent() && userId.equals(cached.get().getId()));
+    }
+
+    private void publishEviction(String message) {
+        try {
+            redissonClient.getTopic(CacheConsts.USER_CREDENTIAL_EVICT_TOPIC, StringCodec.INSTANCE).publish(message);
+        } catch (Exception e) {
+            log.error("登录凭据缓存失效通知失败: message={}, error={}", message, e.getMessage());
+        }
+    }
+
+    /**
+     * 处理失效通知，本实例发布的通知同样会收到，重复清除无副作用
+     */
+    private void onEvicted(String message) {
+        if (message.startsWith(ID_PREFIX)) {
+            try {
+                evictLocalUser(Long.valueOf(message.substring(ID_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                log.warn("登录凭据缓存失效通知格式错误: {}", message);
+            }
+        } else if (message.startsWith(IDENTIFIER_PREFIX)) {
+            credentialCache.invalidate(message.substring(IDENTIFIER_PREFIX.length()));
+        }
+    }
+
+    /**
+     * 查到与查不到用户的缓存使用不同的过期时间，读取不延长过期时间
+     */
+    private record CredentialExpiry(CredentialCacheProperties properties) implements Expiry<String, Optional<UserInfo>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<UserInfo> value, long currentTime) {
+            return (value.isPresent() ? properties.ttl() : properties.negativeTtl()).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<UserInfo> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<UserInfo> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,118 @@
+package com.tcyh.user.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.tcyh.user.config.LoginLogProperties;
+import com.tcyh.user.entity.UserLoginLog;
+import com.tcyh.user.mapper.UserLoginLogMapper;
+import com.tcyh.user.service.UserLoginLogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户登录日志表 服务实现类 - 有界队列 + 后台批量写入
+ * <p>
+ * 登录时只把日志放入有界队列，后台线程按固定间隔取出并以 saveBatch 分批写入，
+ * 配合连接串上的 rewriteBatchedStatements=true，每批在MySQL端合并为一条多行 INSERT。
+ * 队列满时直接丢弃新日志并计数，登录不会因为日志写入变慢而等待；
+ * 写入失败的批次记录错误日志并计数，不重试。停机时写完队列中剩余的日志。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(LoginLogProperties.class)
+public class UserLoginLogServiceImpl extends ServiceImpl<UserLoginLogMapper, UserLoginLog> implements UserLoginLogService,
+        DisposableBean {
+
+    private static final String METRIC_NAME = "tc.user.login-log";
+
+    private final LoginLogProperties properties;
+    private final BlockingQueue<UserLoginLog> queue;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    private ScheduledExecutorService writerExecutor;
+
+    public UserLoginLogServiceImpl(LoginLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.writtenCounter = counter(meterRegistry, "written");
+        this.droppedCounter = counter(meterRegistry, "dropped");
+        this.failedCounter = counter(meterRegistry, "failed");
+        meterRegistry.gauge(METRIC_NAME + ".queue", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void init() {
+        writerExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "login-log-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.flushInterval().toMillis();
+        writerExecutor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean submit(UserLoginLog loginLog) {
+        if (queue.offer(loginLog)) {
+            return true;
+        }
+        droppedCounter.increment();
+        log.debug("登录日志队列已满，丢弃日志: userId={}", loginLog.getUserId());
+        return false;
+    }
+
+    /**
+     * 分批写完队列中当前的日志
+     */
+    private void flush() {
+        int batchSize = properties.batchSize();
+        List<UserLoginLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                saveBatch(batch, batchSize);
+                writtenCounter.increment(batch.size());
+            } catch (Exception e) {
+                failedCounter.increment(batch.size());
+                log.error("批量写入登录日志失败: size={}, error={}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_NAME)
+                .description("登录日志条数：written已写入，dropped队列满被丢弃，failed写入失败")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writerExecutor == null) {
+            return;
+        }
+        writerExecutor.shutdown();
+        if (!writerExecutor.awaitTermination(properties.shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("登录日志写入线程未在 {} 内结束", properties.shutdownTimeout());
+        }
+        flush();
+        log.info("登录日志队列已写完");
+    }
+}
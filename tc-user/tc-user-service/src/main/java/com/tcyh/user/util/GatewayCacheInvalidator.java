@@ -0,0 +1,50 @@
+package com.tcyh.user.util;
+
+import com.tcyh.common.constant.CacheConsts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关响应缓存失效 - 用户数据变更后清除网关为该用户缓存的响应
+ * <p>
+ * 按 {@link CacheConsts#RESPONSE_CACHE_INDEX_PREFIX} 索引删除该用户的Redis缓存条目，
+ * 再向 {@link CacheConsts#RESPONSE_CACHE_INVALIDATE_TOPIC} 发布用户ID，各网关实例清除本地条目。
+ * 立即执行，事务中的修改须由调用方在事务提交后调用，避免网关在提交前重新缓存旧数据；失败只记录日志，不影响业务。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayCacheInvalidator {
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * 使某用户的网关响应缓存失效
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        String indexKey = CacheConsts.RESPONSE_CACHE_INDEX_PREFIX + userId;
+        try {
+            List<String> keys = new ArrayList<>(redissonClient.<String>getSet(indexKey, StringCodec.INSTANCE).readAll());
+            keys.add(indexKey);
+            redissonClient.getKeys().delete(keys.toArray(new String[0]));
+            redissonClient.getTopic(CacheConsts.RESPONSE_CACHE_INVALIDATE_TOPIC, StringCodec.INSTANCE)
+                    .publish(userId.toString());
+        } catch (Exception e) {
+            log.error("网关响应缓存失效失败: userId={}, error={}", userId, e.getMessage());
+        }
+    }
+}
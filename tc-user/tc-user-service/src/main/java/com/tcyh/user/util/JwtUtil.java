@@ -33,6 +33,11 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400}")
     private Long expiration;
 
+    /**
+     * 公钥只读取一次，每次验签不再读文件与解析PEM
+     */
+    private volatile PublicKey publicKey;
+
     /**
      * 生成JWT token
      * 
@@ -107,6 +112,16 @@ public class JwtUtil {
         return claims != null ? claims.getExpiration() : null;
     }
 
+    /**
+     * 验签并解析token，一次完成签名与过期校验
+     * 
+     * @param token JWT token
+     * @return 声明，token无效或已过期时返回 null
+     */
+    public Claims parseClaims(String token) {
+        return getClaimsFromToken(token);
+    }
+
     /**
      * 从token中获取声明
      * 
@@ -115,9 +130,8 @@ public class JwtUtil {
      */
     private Claims getClaimsFromToken(String token) {
         try {
-            PublicKey publicKey = getPublicKey();
             return Jwts.parserBuilder()
-                    .setSigningKey(publicKey)
+                    .setSigningKey(getPublicKey())
                     .build()
                     .parseClaimsJws(token)
                     .getBody();
@@ -193,9 +207,18 @@ public class JwtUtil {
     }
 
     /**
-     * 获取公钥
+     * 获取公钥，首次调用时加载
      */
     private PublicKey getPublicKey() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
+        PublicKey key = publicKey;
+        if (key == null) {
+            key = loadPublicKey();
+            publicKey = key;
+        }
+        return key;
+    }
+
+    private PublicKey loadPublicKey() throws IOException, NoSuchAlgorithmException, InvalidKeySpecException {
         ClassPathResource resource = new ClassPathResource("jwt-public-key.pem");
         String publicKeyContent = new String(Files.readAllBytes(resource.getFile().toPath()));
         publicKeyContent = publicKeyContent.replaceAll("\\n", "")
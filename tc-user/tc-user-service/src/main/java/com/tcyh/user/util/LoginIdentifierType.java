@@ -0,0 +1,48 @@
+package com.tcyh.user.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * 登录标识类型 - 登录前先判断用户输入的是手机号、邮箱还是用户名
+ * <p>
+ * 用户名只允许字母、数字与下划线，因此带 '@' 的一定是邮箱；
+ * 但用户名可以是11位数字，手机号格式的标识需要同时匹配手机号与用户名。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public enum LoginIdentifierType {
+
+    /**
+     * 手机号（同时匹配同名的用户名）
+     */
+    PHONE,
+
+    /**
+     * 邮箱
+     */
+    EMAIL,
+
+    /**
+     * 用户名
+     */
+    USERNAME;
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^1[3-9]\\d{9}$");
+
+    /**
+     * 判断登录标识的类型
+     *
+     * @param identifier 用户名/手机号/邮箱
+     * @return 标识类型
+     */
+    public static LoginIdentifierType of(String identifier) {
+        if (identifier.indexOf('@') >= 0) {
+            return EMAIL;
+        }
+        if (PHONE_PATTERN.matcher(identifier).matches()) {
+            return PHONE;
+        }
+        return USERNAME;
+    }
+}
@@ -0,0 +1,43 @@
+package com.tcyh.user.util;
+
+/**
+ * 密码哈希算法
+ * <p>
+ * 哈希结果为自描述的版本化字符串 {@code $<id>$<参数>$<盐值>$<哈希>}，算法、代价参数与盐值都保存在其中，
+ * 调整代价参数或更换算法后，旧的哈希仍可按其自身参数校验，再在登录时升级。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public interface PasswordHasher {
+
+    /**
+     * 算法标识，即哈希字符串中第一段
+     */
+    String id();
+
+    /**
+     * 用随机盐值计算密码哈希
+     *
+     * @param password 原始密码
+     * @return 版本化的哈希字符串
+     */
+    String hash(String password);
+
+    /**
+     * 按哈希字符串中的参数校验密码，使用常量时间比较
+     *
+     * @param password 原始密码
+     * @param encoded  本算法生成的哈希字符串
+     * @return 是否匹配，格式不正确时返回 false
+     */
+    boolean matches(String password, String encoded);
+
+    /**
+     * 哈希的代价参数是否低于当前配置，需要重新计算
+     *
+     * @param encoded 本算法生成的哈希字符串
+     * @return 是否需要重新计算
+     */
+    boolean needsRehash(String encoded);
+}
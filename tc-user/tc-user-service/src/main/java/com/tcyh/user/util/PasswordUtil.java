@@ -1,88 +1,211 @@
 package com.tcyh.user.util;
 
+import com.tcyh.common.constant.ErrorCodeEnum;
+import com.tcyh.config.exception.BusinessException;
+import com.tcyh.user.config.PasswordProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 /**
- * 密码加密工具类
- * 
+ * 密码加密工具类 - 版本化的自适应哈希，兼容旧格式
+ * <p>
+ * 新密码使用 {@link PasswordHasher} 生成自描述的哈希字符串，盐值内嵌其中，不再使用 salt 列。
+ * 校验时按存储格式分派：
+ * <ul>
+ *     <li>{@code $<id>$...}：对应算法按哈希中的参数校验</li>
+ *     <li>32位十六进制：旧系统的无盐MD5</li>
+ *     <li>其他：旧版 SHA-256(salt + 密码) 的Base64</li>
+ * </ul>
+ * 所有比较均为常量时间。旧格式或代价参数低于当前配置的哈希由 {@link #needsRehash(String)} 识别，
+ * 登录成功后用明文重新计算并保存。
+ * 哈希计算是CPU密集操作，统一在有界的专用线程池中执行，线程数默认为CPU核数，
+ * 大量并发登录时超出队列的请求直接拒绝，不会让所有请求线程同时占满CPU。
+ *
  * @author fp
  * @since 2025-09-17
  */
 @Slf4j
 @Component
-public class PasswordUtil {
+@EnableConfigurationProperties(PasswordProperties.class)
+public class PasswordUtil implements DisposableBean {
 
-    private static final String ALGORITHM = "SHA-256";
-    private static final int SALT_LENGTH = 8;
+    private static final String LEGACY_ALGORITHM = "SHA-256";
+    private static final String PREFIX = "$";
+    private static final Pattern MD5_HEX = Pattern.compile("[0-9a-fA-F]{32}");
 
     /**
-     * 生成随机盐值
-     * 
-     * @return 盐值
+     * 所有哈希共用的随机数源，SecureRandom线程安全，无需每次创建
      */
-    public String generateSalt() {
-        SecureRandom random = new SecureRandom();
-        byte[] salt = new byte[SALT_LENGTH];
-        random.nextBytes(salt);
-        return Base64.getEncoder().encodeToString(salt);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final PasswordProperties properties;
+    private final Map<String, PasswordHasher> hashers;
+    private final PasswordHasher currentHasher;
+    private final ThreadPoolExecutor hashExecutor;
+
+    /**
+     * 用户不存在时用于校验的哈希，使登录耗时不暴露账号是否存在
+     */
+    private final String dummyHash;
+
+    public PasswordUtil(PasswordProperties properties) {
+        this.properties = properties;
+        PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(properties.iterations(), properties.saltLength(),
+                properties.keyLength(), RANDOM);
+        // 新增算法时在此注册，旧算法需保留以校验存量哈希
+        this.hashers = Map.of(pbkdf2.id(), pbkdf2);
+        this.currentHasher = hashers.get(properties.algorithm());
+        if (currentHasher == null) {
+            throw new IllegalArgumentException("不支持的密码哈希算法: " + properties.algorithm());
+        }
+        this.dummyHash = currentHasher.hash(Long.toHexString(RANDOM.nextLong()));
+        this.hashExecutor = newHashExecutor(properties);
     }
 
     /**
-     * 加密密码
-     * 
+     * 计算新密码的哈希
+     *
      * @param password 原始密码
-     * @param salt 盐值
-     * @return 加密后的密码
+     * @return 版本化的哈希字符串
      */
-    public String encryptPassword(String password, String salt) {
-        try {
-            MessageDigest md = MessageDigest.getInstance(ALGORITHM);
-            md.update(salt.getBytes());
-            byte[] hashedPassword = md.digest(password.getBytes());
-            return Base64.getEncoder().encodeToString(hashedPassword);
-        } catch (NoSuchAlgorithmException e) {
-            log.error("密码加密失败: {}", e.getMessage());
-            throw new RuntimeException("密码加密失败", e);
-        }
+    public String hashPassword(String password) {
+        return compute(() -> currentHasher.hash(password));
     }
 
     /**
      * 验证密码
-     * 
+     *
      * @param password 原始密码
-     * @param salt 盐值
-     * @param encryptedPassword 加密后的密码
+     * @param salt 盐值，仅旧版SHA-256格式使用
+     * @param encryptedPassword 存储的密码哈希，为 null 时（用户不存在）同样计算一次哈希后返回 false
      * @return 是否匹配
      */
     public boolean verifyPassword(String password, String salt, String encryptedPassword) {
-        String encrypted = encryptPassword(password, salt);
-        return encrypted.equals(encryptedPassword);
+        if (encryptedPassword == null) {
+            compute(() -> currentHasher.matches(password, dummyHash));
+            return false;
+        }
+        return compute(() -> matches(password, salt, encryptedPassword));
     }
 
     /**
-     * 生成MD5密码（兼容旧系统）
-     * 
-     * @param password 原始密码
-     * @return MD5密码
+     * 存储的哈希是否为旧格式或代价参数低于当前配置，需要在登录成功后重新计算
+     *
+     * @param encryptedPassword 存储的密码哈希
+     * @return 是否需要重新计算
+     */
+    public boolean needsRehash(String encryptedPassword) {
+        if (!encryptedPassword.startsWith(PREFIX + currentHasher.id() + PREFIX)) {
+            return true;
+        }
+        return currentHasher.needsRehash(encryptedPassword);
+    }
+
+    private boolean matches(String password, String salt, String encryptedPassword) {
+        if (encryptedPassword.startsWith(PREFIX)) {
+            int end = encryptedPassword.indexOf(PREFIX, 1);
+            PasswordHasher hasher = end > 0 ? hashers.get(encryptedPassword.substring(1, end)) : null;
+            if (hasher == null) {
+                log.warn("无法识别的密码哈希格式");
+                return false;
+            }
+            return hasher.matches(password, encryptedPassword);
+        }
+        if (MD5_HEX.matcher(encryptedPassword).matches()) {
+            return MessageDigest.isEqual(digest("MD5", null, password),
+                    HexFormat.of().parseHex(encryptedPassword));
+        }
+        if (salt == null) {
+            return false;
+        }
+        byte[] expected;
+        try {
+            expected = Base64.getDecoder().decode(encryptedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(digest(LEGACY_ALGORITHM, salt, password), expected);
+    }
+
+    /**
+     * 旧格式的摘要：digest(salt + 密码)，与之前使用平台默认编码的实现保持一致
      */
-    public String generateMD5Password(String password) {
+    private static byte[] digest(String algorithm, String salt, String password) {
         try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(password.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
+            MessageDigest md = MessageDigest.getInstance(algorithm);
+            if (salt != null) {
+                md.update(salt.getBytes());
             }
-            return sb.toString();
+            return md.digest(password.getBytes());
         } catch (NoSuchAlgorithmException e) {
-            log.error("MD5密码生成失败: {}", e.getMessage());
-            throw new RuntimeException("MD5密码生成失败", e);
+            log.error("密码摘要计算失败: {}", e.getMessage());
+            throw new IllegalStateException("密码摘要计算失败", e);
+        }
+    }
+
+    /**
+     * 在哈希线程池中计算并等待结果，排队已满或等待超时时拒绝本次请求
+     */
+    private <T> T compute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = hashExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("密码哈希队列已满，拒绝请求");
+            throw new BusinessException(ErrorCodeEnum.USER_REQ_MANY);
+        }
+        try {
+            return future.get(properties.hashTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("密码哈希等待超时: {}", properties.hashTimeout());
+            throw new BusinessException(ErrorCodeEnum.SYSTEM_TIMEOUT_ERROR);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCodeEnum.SYSTEM_ERROR);
+        } catch (ExecutionException e) {
+            log.error("密码哈希计算失败: {}", e.getCause().getMessage());
+            throw new BusinessException(ErrorCodeEnum.SYSTEM_ERROR);
         }
     }
+
+    private static ThreadPoolExecutor newHashExecutor(PasswordProperties properties) {
+        int threads = properties.hashThreads() > 0 ? properties.hashThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.hashQueueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "password-hasher-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void destroy() {
+        hashExecutor.shutdownNow();
+    }
 }
@@ -0,0 +1,108 @@
+package com.tcyh.user.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 密码哈希，使用JDK内置实现
+ * <p>
+ * 哈希格式：{@code $pbkdf2-sha256$i=<迭代次数>$<盐值>$<哈希>}，盐值与哈希为不带填充的Base64。
+ * 16字节盐值、32字节哈希时总长度不超过100个字符。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    public static final String ID = "pbkdf2-sha256";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String ITERATIONS_PREFIX = "i=";
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int iterations;
+    private final int saltLength;
+    private final int keyLength;
+    private final SecureRandom random;
+
+    /**
+     * @param iterations 迭代次数
+     * @param saltLength 盐值字节数
+     * @param keyLength  哈希字节数
+     * @param random     生成盐值的随机数源
+     */
+    public Pbkdf2PasswordHasher(int iterations, int saltLength, int keyLength, SecureRandom random) {
+        this.iterations = iterations;
+        this.saltLength = saltLength;
+        this.keyLength = keyLength;
+        this.random = random;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[saltLength];
+        random.nextBytes(salt);
+        byte[] hash = derive(password, salt, iterations, keyLength);
+        return "$" + ID + "$" + ITERATIONS_PREFIX + iterations + "$" + ENCODER.encodeToString(salt)
+                + "$" + ENCODER.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String password, String encoded) {
+        Parsed parsed = parse(encoded);
+        if (parsed == null) {
+            return false;
+        }
+        byte[] actual = derive(password, parsed.salt(), parsed.iterations(), parsed.hash().length);
+        return MessageDigest.isEqual(actual, parsed.hash());
+    }
+
+    @Override
+    public boolean needsRehash(String encoded) {
+        Parsed parsed = parse(encoded);
+        return parsed == null || parsed.iterations() < iterations || parsed.hash().length != keyLength;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyLength * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2计算失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * 解析哈希字符串，格式不正确时返回 null
+     */
+    private static Parsed parse(String encoded) {
+        // ["", id, "i=n", salt, hash]
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 5 || !ID.equals(parts[1]) || !parts[2].startsWith(ITERATIONS_PREFIX)) {
+            return null;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[2].substring(ITERATIONS_PREFIX.length()));
+            byte[] salt = DECODER.decode(parts[3]);
+            byte[] hash = DECODER.decode(parts[4]);
+            return iterations > 0 && hash.length > 0 ? new Parsed(iterations, salt, hash) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record Parsed(int iterations, byte[] salt, byte[] hash) {
+    }
+}
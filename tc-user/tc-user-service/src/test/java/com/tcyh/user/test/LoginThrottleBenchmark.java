@@ -0,0 +1,130 @@
+package com.tcyh.user.test;
+
+import com.tcyh.user.config.LoginThrottleProperties;
+import com.tcyh.user.security.LoginThrottle;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录并发对比基准 - 分布式锁与Lua原子计数
+ * <p>
+ * 需要本地Redis（-Dredis.address 指定，默认 redis://127.0.0.1:6379）。
+ * 每次登录的查库、密码校验、写日志与签发token用固定耗时模拟，比较：
+ * 同一账号多设备同时登录时的延迟与"系统繁忙"失败数，以及大量不同账号并发登录时的总吞吐。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class LoginThrottleBenchmark {
+
+    private static final long LOGIN_WORK_MILLIS = 30;
+
+    public static void main(String[] args) throws Exception {
+        Config config = new Config();
+        config.useSingleServer().setAddress(System.getProperty("redis.address", "redis://127.0.0.1:6379"));
+        RedissonClient redissonClient = Redisson.create(config);
+        LoginThrottle throttle = new LoginThrottle(redissonClient, new LoginThrottleProperties(
+                5, Duration.ofMinutes(15), Duration.ofMinutes(30), 0, Duration.ofMinutes(1)));
+        try {
+            System.out.println("== 同一账号，16个设备各登录10次 ==");
+            run("rlock", 16, 10, true, lock(redissonClient));
+            run("lua", 16, 10, true, lua(throttle));
+
+            System.out.println("== 64个账号并发，各登录20次 ==");
+            run("rlock", 64, 20, false, lock(redissonClient));
+            run("lua", 64, 20, false, lua(throttle));
+        } finally {
+            redissonClient.shutdown();
+        }
+    }
+
+    /**
+     * 原实现：持有 login:lock:&lt;username&gt; 完成整个登录流程，最多等待1秒
+     */
+    private static Login lock(RedissonClient redissonClient) {
+        return username -> {
+            RLock lock = redissonClient.getLock("bench:login:lock:" + username);
+            if (!lock.tryLock(1, 30, TimeUnit.MINUTES)) {
+                return false;
+            }
+            try {
+                Thread.sleep(LOGIN_WORK_MILLIS);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    /**
+     * 新实现：检查锁定状态后直接登录，成功后清除错误记录
+     */
+    private static Login lua(LoginThrottle throttle) {
+        return username -> {
+            throttle.tryAcquireIp("10.0.0.1");
+            if (throttle.isLocked(username)) {
+                return false;
+            }
+            Thread.sleep(LOGIN_WORK_MILLIS);
+            throttle.reset(username);
+            return true;
+        };
+    }
+
+    private static void run(String name, int threads, int loginsPerThread, boolean sameUser, Login login)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long[] latencies = new long[threads * loginsPerThread];
+        AtomicInteger index = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            String username = sameUser ? "bench-user" : "bench-user-" + t;
+            executor.execute(() -> {
+                try {
+                    for (int i = 0; i < loginsPerThread; i++) {
+                        long begin = System.nanoTime();
+                        if (!login.login(username)) {
+                            rejected.incrementAndGet();
+                        }
+                        latencies[index.getAndIncrement()] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-6s logins/s=%7.1f p50=%8.2fms p99=%8.2fms rejected=%d/%d%n",
+                name, latencies.length / (elapsed / 1e9), millis(latencies, 0.5), millis(latencies, 0.99),
+                rejected.get(), latencies.length);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1);
+        return sorted[index] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @FunctionalInterface
+    private interface Login {
+
+        boolean login(String username) throws InterruptedException;
+    }
+}
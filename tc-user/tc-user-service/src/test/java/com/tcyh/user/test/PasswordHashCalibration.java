@@ -0,0 +1,80 @@
+package com.tcyh.user.test;
+
+import com.tcyh.user.util.Pbkdf2PasswordHasher;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希代价标定 - 按目标耗时选择 PBKDF2 迭代次数
+ * <p>
+ * 在目标部署机器上运行：{@code -Dtarget.millis} 指定单次哈希的目标耗时（默认100ms）。
+ * 先预热JIT，再从较小迭代次数开始倍增，测出每次迭代的耗时后按比例估算目标迭代次数，
+ * 最后在估算值上重复测量，输出中位数与p99，作为 tc.user.password.iterations 的取值依据。
+ * 哈希线程数除以单次耗时即为每秒可处理的登录数上限。
+ *
+ * @author fp
+ * @since 2025-09-17
+ */
+public class PasswordHashCalibration {
+
+    private static final String PASSWORD = "Calibrate123";
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_LENGTH = 32;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURE_ROUNDS = 30;
+    private static final int MIN_ITERATIONS = 10_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static void main(String[] args) {
+        long targetMillis = Long.getLong("target.millis", 100);
+
+        Pbkdf2PasswordHasher warmup = hasher(MIN_ITERATIONS);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            warmup.hash(PASSWORD);
+        }
+
+        // 倍增直到单次耗时超过目标的四分之一，此时计时误差可以忽略
+        int iterations = MIN_ITERATIONS;
+        double median = measure(iterations, 5)[0];
+        while (median < targetMillis / 4.0) {
+            iterations *= 2;
+            median = measure(iterations, 5)[0];
+        }
+        int estimated = (int) Math.round(iterations * targetMillis / median / 1000) * 1000;
+
+        double[] result = measure(estimated, MEASURE_ROUNDS);
+        System.out.printf("target=%dms iterations=%d median=%.1fms p99=%.1fms cores=%d%n",
+                targetMillis, estimated, result[0], result[1], Runtime.getRuntime().availableProcessors());
+        System.out.printf("tc.user.password.iterations: %d%n", estimated);
+    }
+
+    /**
+     * 测量校验耗时，返回中位数与p99（毫秒）
+     */
+    private static double[] measure(int iterations, int rounds) {
+        Pbkdf2PasswordHasher hasher = hasher(iterations);
+        String encoded = hasher.hash(PASSWORD);
+        long[] samples = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            if (!hasher.matches(PASSWORD, encoded)) {
+                throw new IllegalStateException("校验失败");
+            }
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        int p99 = Math.min(rounds - 1, (int) Math.ceil(0.99 * rounds) - 1);
+        return new double[]{millis(samples[rounds / 2]), millis(samples[p99])};
+    }
+
+    private static Pbkdf2PasswordHasher hasher(int iterations) {
+        return new Pbkdf2PasswordHasher(iterations, SALT_LENGTH, KEY_LENGTH, RANDOM);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}